@@ -0,0 +1,77 @@
+package pafapp.Fitness.cache;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+// Builds a UserSuggestIndex over synthetic users and prints build time, retained heap and query latency
+// percentiles for 1-4 character prefixes (the typeahead case). Not a JUnit test; run it directly:
+//   mvn -Pbench test-compile exec:java -Dexec.mainClass=pafapp.Fitness.cache.UserSuggestBenchmark -Dexec.classpathScope=test \
+//       -Dexec.args="1000000"
+// Give it room (e.g. MAVEN_OPTS=-Xmx2g) so the heap figure is not dominated by GC pressure.
+public final class UserSuggestBenchmark {
+
+    private static final String[] FIRST = { "alex", "anna", "ben", "chloe", "daniel", "emma", "finn", "grace",
+            "henry", "isla", "jack", "kate", "liam", "mia", "noah", "olivia", "ryan", "sofia", "tom", "zoe" };
+    private static final String[] LAST = { "smith", "jones", "brown", "taylor", "wilson", "davies", "evans",
+            "thomas", "johnson", "roberts", "walker", "wright", "robinson", "thompson", "white", "hughes" };
+
+    private UserSuggestBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        Random random = new Random(42);
+
+        long heapBefore = usedHeap();
+        UserSuggestIndex index = new UserSuggestIndex();
+        long buildStarted = System.nanoTime();
+        index.rebuild(() -> IntStream.range(0, users).mapToObj(i -> {
+            String first = FIRST[random.nextInt(FIRST.length)];
+            String last = LAST[random.nextInt(LAST.length)];
+            String name = first + " " + last + (i % 7 == 0 ? " " + Integer.toString(i, 36) : "");
+            int followers = (int) Math.min(Integer.MAX_VALUE, Math.round(Math.pow(10, random.nextDouble() * 6)));
+            return new UserSuggestIndex.Entry(UUID.randomUUID().toString(), name,
+                    first + "." + last + i + "@mail.test", followers);
+        }));
+        long buildMillis = (System.nanoTime() - buildStarted) / 1_000_000;
+        long retainedMb = (usedHeap() - heapBefore) / (1024 * 1024);
+
+        String[] prefixes = new String[queries];
+        for (int i = 0; i < queries; i++) {
+            String word = random.nextBoolean() ? FIRST[random.nextInt(FIRST.length)] : LAST[random.nextInt(LAST.length)];
+            prefixes[i] = word.substring(0, 1 + random.nextInt(Math.min(4, word.length())));
+        }
+        // Warm up the JIT before measuring
+        for (int i = 0; i < Math.min(queries, 50_000); i++) {
+            index.suggest(prefixes[i], 10);
+        }
+        long[] latencies = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            long started = System.nanoTime();
+            index.suggest(prefixes[i], 10);
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("users=%d build=%d ms retained heap=~%d MB%n", users, buildMillis, retainedMb);
+        System.out.printf("queries=%d latency us p50=%.1f p99=%.1f p99.9=%.1f max=%.1f%n", queries,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                percentile(latencies, 1.0));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static double percentile(long[] sorted, double q) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(q * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e3;
+    }
+}
@@ -0,0 +1,109 @@
+package pafapp.Fitness.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+// Closed-loop load against GET /posts: N concurrent clients, each on its own virtual thread, issue feed
+// requests back to back for a fixed time, then throughput, errors and latency percentiles are printed.
+// Compare the two request execution modes by starting the app once with each setting and running this
+// against it with the same arguments:
+//   java -jar target/Fitness-*.jar --spring.threads.virtual.enabled=true   (virtual threads, default)
+//   java -jar target/Fitness-*.jar --spring.threads.virtual.enabled=false  (Tomcat's 200 platform threads)
+//   mvn -Pbench test-compile exec:java -Dexec.mainClass=pafapp.Fitness.load.FeedLoadRunner -Dexec.classpathScope=test \
+//       -Dexec.args="http://localhost:8080 5000 PT60S"
+// Watch db.permits.wait and hikaricp.connections.acquire under /actuator/metrics while it runs.
+public final class FeedLoadRunner {
+
+    private FeedLoadRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        Duration duration = args.length > 2 ? Duration.parse(args[2]) : Duration.ofSeconds(60);
+        Duration warmup = Duration.ofSeconds(10);
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/posts?limit=20"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        LongAdder errors = new LongAdder();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long deadline = measureFrom + duration.toNanos();
+
+        List<Future<long[]>> results = new ArrayList<>(clients);
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                results.add(workers.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    long now;
+                    while ((now = System.nanoTime()) < deadline) {
+                        int status;
+                        try {
+                            status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        long finished = System.nanoTime();
+                        if (now < measureFrom) {
+                            continue; // warmup
+                        }
+                        if (status != 200) {
+                            errors.increment();
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = finished - now;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+
+        long total = 0;
+        for (Future<long[]> result : results) {
+            total += result.get().length;
+        }
+        long[] all = new long[(int) total];
+        int offset = 0;
+        for (Future<long[]> result : results) {
+            long[] part = result.get();
+            System.arraycopy(part, 0, all, offset, part.length);
+            offset += part.length;
+        }
+        Arrays.sort(all);
+
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("clients=%d duration=%s requests=%d errors=%d throughput=%.1f req/s%n",
+                clients, duration, total, errors.sum(), total / seconds);
+        System.out.printf("latency ms p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99), percentile(all, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double q) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(q * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
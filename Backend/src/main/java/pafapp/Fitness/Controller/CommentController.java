@@ -2,7 +2,7 @@ package pafapp.Fitness.Controller;
 
 import lombok.RequiredArgsConstructor;
 import pafapp.Fitness.Dto.CommentDto;
-import pafapp.Fitness.Model.Comment;
+import pafapp.Fitness.Dto.CommentResDto;
 import pafapp.Fitness.Service.PostCommentService;
 
 import org.springframework.http.HttpStatus;
@@ -22,14 +22,14 @@ public class CommentController {
 
     // GET: Get all comments for a post
     @GetMapping
-    public ResponseEntity<List<Comment>> getCommentsForPost(@PathVariable Long postId) {
-        List<Comment> comments = commentService.getCommentsForPost(postId);
+    public ResponseEntity<List<CommentResDto>> getCommentsForPost(@PathVariable Long postId) {
+        List<CommentResDto> comments = commentService.getCommentsForPost(postId);
         return new ResponseEntity<>(comments, HttpStatus.OK);
     }
 
     // POST: Add a comment to a post
 @PostMapping
-public ResponseEntity<Comment> addCommentToPost(
+public ResponseEntity<CommentResDto> addCommentToPost(
         @PathVariable Long postId,
         @RequestBody CommentDto request
 ) {
@@ -38,17 +38,12 @@ public ResponseEntity<Comment> addCommentToPost(
         System.out.println("Content: " + request.getContent());
         System.out.println("By: " + request.getCommentBy());
         System.out.println("User ID: " + request.getCommentById());
-        System.out.println("Profile: " + (request.getCommentByProfile() != null ? "Provided" : "null"));
 
-        // ✅ Fallback in case profile is null (prevent DB errors)
-        String safeProfile = request.getCommentByProfile() != null ? request.getCommentByProfile() : "";
-
-        Comment comment = commentService.addCommentToPost(
+        CommentResDto comment = commentService.addCommentToPost(
                 postId,
                 request.getContent(),
                 request.getCommentBy(),
-                request.getCommentById(),
-                safeProfile
+                request.getCommentById()
         );
         return new ResponseEntity<>(comment, HttpStatus.CREATED);
 
@@ -70,11 +65,11 @@ public ResponseEntity<Comment> addCommentToPost(
 
     // PUT: Edit a comment
     @PutMapping("/{commentId}")
-    public ResponseEntity<Comment> editComment(
+    public ResponseEntity<CommentResDto> editComment(
             @PathVariable Long commentId,
             @RequestBody CommentDto request
     ) {
-        Comment editedComment = commentService.editComment(commentId, request.getContent());
+        CommentResDto editedComment = commentService.editComment(commentId, request.getContent());
         if (editedComment != null) {
             return new ResponseEntity<>(editedComment, HttpStatus.OK);
         } else {
@@ -1,6 +1,7 @@
 package pafapp.Fitness.Controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -8,9 +9,12 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import pafapp.Fitness.Dto.CursorPageDto;
 import pafapp.Fitness.Model.Notification;
 import pafapp.Fitness.Service.NotificationService;
 
@@ -21,9 +25,35 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
 
+    // Inbox page, newest first; pass nextCursor back as "before" for the next page
     @GetMapping("/{userId}")
-    public ResponseEntity<List<Notification>> getNotifications(@PathVariable String userId) {
-        return ResponseEntity.ok(notificationService.getNotificationsForUser(userId));
+    public ResponseEntity<CursorPageDto<Notification>> getNotifications(
+            @PathVariable String userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        try {
+            return ResponseEntity.ok(notificationService.getNotificationsForUser(userId, before, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{userId}/unread-count")
+    public ResponseEntity<Map<String, Integer>> getUnreadCount(@PathVariable String userId) {
+        return ResponseEntity.ok(Map.of("unread", notificationService.getUnreadCount(userId)));
+    }
+
+    @PostMapping("/{userId}/read-all")
+    public ResponseEntity<String> markAllRead(@PathVariable String userId) {
+        notificationService.markAllRead(userId);
+        return ResponseEntity.ok("Notifications marked as read.");
+    }
+
+    @PostMapping("/{userId}/read")
+    public ResponseEntity<String> markRead(@PathVariable String userId, @RequestBody List<String> ids) {
+        notificationService.markRead(userId, ids);
+        return ResponseEntity.ok("Notifications marked as read.");
     }
 
     @PostMapping("/read/{id}")
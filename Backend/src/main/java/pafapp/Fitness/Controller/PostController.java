@@ -1,5 +1,8 @@
 package pafapp.Fitness.Controller;
 import lombok.RequiredArgsConstructor;
+import pafapp.Fitness.Dto.CursorPageDto;
+import pafapp.Fitness.Dto.FeedPostDto;
+import pafapp.Fitness.Dto.PostDetailDto;
 import pafapp.Fitness.Dto.PostDto;
 import pafapp.Fitness.Model.Post;
 import pafapp.Fitness.Service.PostService;
@@ -19,17 +22,41 @@ public class PostController {
 
     private final PostService postService;
 
-    // Get all posts
+    // Get a page of the home feed, newest first (pass nextCursor back as ?before=)
     @GetMapping
-    public ResponseEntity<List<Post>> getAllPosts() {
-        List<Post> posts = postService.getAllPosts();
-        return ResponseEntity.ok(posts);
+    public ResponseEntity<CursorPageDto<FeedPostDto>> getFeed(
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String viewerId
+    ) {
+        try {
+            return ResponseEntity.ok(postService.getFeed(before, limit, viewerId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Get a page of the user's home timeline (own posts and followed users' posts)
+    @GetMapping("/timeline/{userId}")
+    public ResponseEntity<CursorPageDto<FeedPostDto>> getHomeTimeline(
+            @PathVariable String userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        try {
+            return ResponseEntity.ok(postService.getHomeTimeline(userId, before, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
-    // Get a post by ID
+    // Get the full post (all comments and shares); feed cards come from getFeed
     @GetMapping("/{id}")
-    public ResponseEntity<Post> getPostById(@PathVariable Long id) {
-        Optional<Post> post = postService.getPostById(id);
+    public ResponseEntity<PostDetailDto> getPostById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String viewerId
+    ) {
+        Optional<PostDetailDto> post = postService.getPostDetail(id, viewerId);
         return post.map(ResponseEntity::ok)
                    .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -37,8 +64,13 @@ public class PostController {
     // Create a new post
     @PostMapping
     public ResponseEntity<Post> createPost(@RequestBody PostDto postDto) {
-        Post savedPost = postService.createPost(postDto);
-        return new ResponseEntity<>(savedPost, HttpStatus.CREATED);
+        try {
+            Post savedPost = postService.createPost(postDto);
+            return new ResponseEntity<>(savedPost, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            // Mixed or missing media, or a malformed or oversized inline video
+            return ResponseEntity.badRequest().build();
+        }
     }
     // Update a post
     @PutMapping("/{id}")
@@ -62,8 +94,11 @@ public class PostController {
 
     // Get posts by userId
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Post>> getPostsByUserId(@PathVariable String userId) {
-        List<Post> posts = postService.getPostsByUserId(userId);
+    public ResponseEntity<List<FeedPostDto>> getPostsByUserId(
+            @PathVariable String userId,
+            @RequestParam(required = false) String viewerId
+    ) {
+        List<FeedPostDto> posts = postService.getPostsByUserId(userId, viewerId);
         return ResponseEntity.ok(posts);
     }
 }
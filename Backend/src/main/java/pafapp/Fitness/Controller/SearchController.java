@@ -0,0 +1,36 @@
+package pafapp.Fitness.Controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import pafapp.Fitness.Dto.CursorPageDto;
+import pafapp.Fitness.Dto.SearchHitDto;
+import pafapp.Fitness.Service.SearchService;
+
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    // Best matches first; pass nextCursor back as "after" for the next page.
+    // type (post, comment, user) is optional and narrows the results to one kind.
+    @GetMapping
+    public ResponseEntity<CursorPageDto<SearchHitDto>> search(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        try {
+            return ResponseEntity.ok(searchService.search(query, type, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package pafapp.Fitness.Controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.servlet.http.HttpSession;
+import pafapp.Fitness.Model.User;
+import pafapp.Fitness.Service.UserService;
+import pafapp.Fitness.Service.implementation.EventStreamHub;
+
+// Server-Sent Events, an alternative to the /ws socket for clients that only need to listen.
+// EventSource reconnects on its own and sends Last-Event-ID, which resumes from the replay log.
+@RestController
+@RequestMapping("/stream")
+public class StreamController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    @Autowired
+    private EventStreamHub eventStreamHub;
+
+    @Autowired
+    private UserService userService;
+
+    // "post" events carry the id of each new post
+    @GetMapping(path = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter feed(@RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        return eventStreamHub.subscribeFeed(lastEventId);
+    }
+
+    // "unread" events carry the logged-in user's unread notification count
+    @GetMapping(path = "/notifications", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> notifications(
+            HttpSession session,
+            OAuth2AuthenticationToken token,
+            @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId
+    ) {
+        // Same resolution as /users/me: OAuth2 login by email, otherwise the credentials-login session
+        String userId = null;
+        if (token != null && token.isAuthenticated()) {
+            User user = userService.getUserByEmail(token.getPrincipal().getAttribute("email"));
+            userId = user != null ? user.getId() : null;
+        }
+        if (userId == null) {
+            userId = (String) session.getAttribute("userId");
+        }
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(eventStreamHub.subscribeNotifications(userId, lastEventId));
+    }
+}
@@ -1,36 +1,80 @@
 package pafapp.Fitness.Controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
+import pafapp.Fitness.Dto.UploadSessionDto;
+import pafapp.Fitness.Service.MediaStoreService;
+
 import java.io.IOException;
-import java.nio.file.*;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/upload")
 public class UploadController {
 
-    private static final String UPLOAD_DIR = "uploads/";
+    @Autowired
+    private MediaStoreService mediaStoreService;
 
+    // Single-request upload (images, short videos); returns the content-addressed URL
     @PostMapping("/image")
     public ResponseEntity<String> uploadImage(@RequestParam("file") MultipartFile file) {
         try {
-            // Generate unique filename
-            String filename = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-            Path path = Paths.get(UPLOAD_DIR + filename);
+            String fileUrl = mediaStoreService.store(file.getInputStream(), file.getContentType(), file.getSize());
+            return ResponseEntity.ok(fileUrl);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+        } catch (IOException | UncheckedIOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Upload failed: " + e.getMessage());
+        }
+    }
 
-            // Ensure directory exists
-            Files.createDirectories(path.getParent());
-            Files.copy(file.getInputStream(), path, StandardCopyOption.REPLACE_EXISTING);
+    // Resumable upload: POST to start, PUT raw chunks at ?offset=, GET to resume, POST /complete
+    @PostMapping("/sessions")
+    public ResponseEntity<UploadSessionDto> startUpload(@RequestParam String contentType) {
+        return new ResponseEntity<>(mediaStoreService.startUpload(contentType), HttpStatus.CREATED);
+    }
 
-            // Return full URL (matches frontend expectations)
-            String fileUrl = "http://localhost:8080/uploads/" + filename;
-            return ResponseEntity.ok(fileUrl);
+    @GetMapping("/sessions/{uploadId}")
+    public ResponseEntity<UploadSessionDto> getUpload(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(mediaStoreService.getUpload(uploadId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
 
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Upload failed: " + e.getMessage());
+    @PutMapping(value = "/sessions/{uploadId}", consumes = "application/octet-stream")
+    public ResponseEntity<UploadSessionDto> appendChunk(
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            HttpServletRequest request
+    ) throws IOException {
+        try {
+            return ResponseEntity.ok(mediaStoreService.appendChunk(uploadId, offset, request.getInputStream()));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            // Wrong offset or a concurrent chunk: the client re-reads the session and resumes
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+    }
+
+    @PostMapping("/sessions/{uploadId}/complete")
+    public ResponseEntity<UploadSessionDto> completeUpload(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(mediaStoreService.completeUpload(uploadId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
 }
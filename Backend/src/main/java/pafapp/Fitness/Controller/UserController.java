@@ -10,9 +10,12 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import pafapp.Fitness.Dto.UserDto;
 import pafapp.Fitness.Dto.UserResDto;
+import pafapp.Fitness.Dto.UserSuggestionDto;
 import pafapp.Fitness.Model.User;
+import pafapp.Fitness.Model.UserStats;
+import pafapp.Fitness.Service.FollowGraphService;
 import pafapp.Fitness.Service.UserService;
-import pafapp.Fitness.repository.UserRepository;
+import pafapp.Fitness.cache.UserSummaryCache;
 
 import java.util.HashMap;
 import java.util.List;
@@ -26,7 +29,10 @@ public class UserController {
     private UserService userService;
     
     @Autowired
-    private UserRepository userRepository;
+    private FollowGraphService followGraphService;
+
+    @Autowired
+    private UserSummaryCache userSummaryCache;
 
 
     @PostMapping("/register")
@@ -59,11 +65,54 @@ public class UserController {
         }
     }
     
+    // Typeahead: users whose name (or any word of it) or email starts with q, most followed first
+    @GetMapping("/suggest")
+    public ResponseEntity<List<UserSuggestionDto>> suggestUsers(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(userService.suggestUsers(query, limit));
+    }
+
     @PostMapping("/follow")
     public ResponseEntity<Object> followUser(@RequestParam String userId, @RequestParam String FollowedUserId) {
         return userService.followUser(userId,FollowedUserId);
 
     }
+
+    @GetMapping("/follow/status")
+    public ResponseEntity<Boolean> isFollowing(@RequestParam String userId, @RequestParam String followedUserId) {
+        return ResponseEntity.ok(followGraphService.isFollowing(userId, followedUserId));
+    }
+
+    // Followers of a user, newest first (pass nextCursor back as ?before=)
+    @GetMapping("/{userId}/followers")
+    public ResponseEntity<?> getFollowers(
+            @PathVariable String userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        try {
+            return ResponseEntity.ok(followGraphService.getFollowers(userId, before, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Users this user follows, newest first
+    @GetMapping("/{userId}/following")
+    public ResponseEntity<?> getFollowing(
+            @PathVariable String userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        try {
+            return ResponseEntity.ok(followGraphService.getFollowing(userId, before, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping("/login")
     public ResponseEntity<Object> loginUser(@RequestBody User user, HttpServletRequest request) {
     ResponseEntity<Object> response = userService.loginUser(user.getEmail(), user.getPassword());
@@ -110,10 +159,10 @@ public ResponseEntity<?> getCurrentUser(
         data.put("profileImage", user.getProfileImage());
 
         Map<String, Integer> stats = new HashMap<>();
-        int postCount = userService.getPostCountByUserId(user.getId());
-        stats.put("posts", postCount);
-        stats.put("followers", user.getFollowersCount());
-        stats.put("following", user.getFollowingCount());
+        UserStats userStats = userService.getUserStats(user.getId());
+        stats.put("posts", userStats.getPostCount());
+        stats.put("followers", userStats.getFollowersCount());
+        stats.put("following", userStats.getFollowingCount());
 
         data.put("stats", stats);
         return ResponseEntity.ok(data);
@@ -131,21 +180,20 @@ public ResponseEntity<?> updateUser(
         @RequestBody Map<String, Object> updates
 ) {
     try {
-        User user = userRepository.findById(userId).orElse(null);
+        User user = userService.updateProfile(userId,
+                (String) updates.get("username"),
+                (String) updates.get("profileImage"));
         if (user == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
         }
 
-        if (updates.containsKey("username")) {
-            user.setName((String) updates.get("username"));
-        }
-        if (updates.containsKey("profileImage")) {
-            user.setProfileImage((String) updates.get("profileImage"));
-        }
-
-        userRepository.save(user);
+        // Posts and comments render the author from this cache, so drop the stale entry now
+        userSummaryCache.invalidate(userId);
         return ResponseEntity.ok("Profile updated successfully");
 
+    } catch (IllegalArgumentException e) {
+        // Malformed or oversized inline profile image
+        return ResponseEntity.badRequest().body(e.getMessage());
     } catch (Exception e) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Update failed: " + e.getMessage());
@@ -15,6 +15,5 @@ public class CommentDto {
     private String content;
     private String commentBy;
     private String commentById;
-    private String commentByProfile;
     
 }
@@ -0,0 +1,23 @@
+package pafapp.Fitness.Dto;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+// Comment as returned to clients, with the author resolved from UserSummaryCache
+public class CommentResDto {
+    private Long id;
+    private String content;
+    private String commentBy;
+    private String commentById;
+    private String commentByProfile;
+    private Date createdAt;
+}
@@ -0,0 +1,18 @@
+package pafapp.Fitness.Dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class CursorPageDto<T> {
+    private List<T> items;
+    private String nextCursor; // null when there are no more pages
+}
@@ -0,0 +1,34 @@
+package pafapp.Fitness.Dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class FeedPostDto {
+    private Long id;
+    private String title;
+    private LocalDateTime date;
+    private List<String> images;
+    private String video;
+    private String description;
+
+    private int likeCount;
+    private boolean likedByViewer;
+    private long viewCount;
+    private long commentsCount;
+
+    private String userId;
+    private String username;
+    private String userProfile;
+
+    private List<CommentResDto> recentComments; // newest first, capped per post
+}
@@ -0,0 +1,20 @@
+package pafapp.Fitness.Dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class FollowDto {
+    private String userId;
+    private String name;
+    private String profileImage;
+    private LocalDateTime followedAt;
+}
@@ -0,0 +1,17 @@
+package pafapp.Fitness.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class FollowStateDto {
+    private String followerId;
+    private String followeeId;
+    private boolean following; // state after the call
+}
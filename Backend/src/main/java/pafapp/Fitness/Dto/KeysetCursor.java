@@ -0,0 +1,41 @@
+package pafapp.Fitness.Dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Opaque (timestamp, id) position used for keyset pagination.
+// Clients only ever echo the encoded string back as ?before=...
+@Getter
+@AllArgsConstructor
+public class KeysetCursor {
+
+    private final LocalDateTime timestamp;
+    private final String id;
+
+    public String encode() {
+        String raw = timestamp + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Long idAsLong() {
+        return Long.parseLong(id);
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int comma = raw.indexOf(',');
+            if (comma < 0) {
+                throw new IllegalArgumentException("Malformed cursor: " + cursor);
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, comma)), raw.substring(comma + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+    }
+}
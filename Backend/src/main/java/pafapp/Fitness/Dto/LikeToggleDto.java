@@ -0,0 +1,17 @@
+package pafapp.Fitness.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class LikeToggleDto {
+    private Long postId;
+    private boolean liked; // state after the toggle
+    private int likeCount;
+}
@@ -1,11 +1,13 @@
 package pafapp.Fitness.Dto;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import pafapp.Fitness.Model.NotificationType;
 
 @Getter
 @Setter
@@ -20,5 +22,8 @@ public class NotificationDto {
     private String message;
     private boolean read; // Changed from isRead to read to match setter/getter naming convention
     private LocalDateTime timestamp;
+    private NotificationType type;
+    private int actorCount; // "N people liked your post"
+    private List<String> recentActorIds;
 
 }
@@ -0,0 +1,25 @@
+package pafapp.Fitness.Dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pafapp.Fitness.Model.NotificationType;
+
+// Unit of work on the notification pipeline queue
+@Getter
+@AllArgsConstructor
+
+public class NotificationEvent {
+    private final NotificationType type;
+    private final String recipientId;
+    private final String senderId;
+    private final String postId;
+    private final String message;
+    private final LocalDateTime timestamp;
+
+    // Events with the same key describe the same thing happening to the same post
+    public String coalescingKey() {
+        return recipientId + "|" + postId + "|" + type;
+    }
+}
@@ -0,0 +1,20 @@
+package pafapp.Fitness.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class SearchHitDto {
+    private String type;    // post, comment or user
+    private String id;
+    private Long postId;    // the post a comment belongs to (same as id for posts)
+    private String title;   // post title or user name
+    private String snippet; // start of the description or comment
+    private float score;
+}
@@ -0,0 +1,17 @@
+package pafapp.Fitness.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class UploadSessionDto {
+    private String uploadId;
+    private long offset; // bytes received so far; the next chunk must start here
+    private String url;  // set once the upload is completed
+}
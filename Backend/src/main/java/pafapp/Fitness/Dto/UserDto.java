@@ -1,7 +1,5 @@
 package pafapp.Fitness.Dto;
 
-import java.util.List;
-
 import jakarta.persistence.Column;
 import jakarta.persistence.Lob;
 import lombok.Data;
@@ -16,8 +14,6 @@ public class UserDto {
     private String profileImage;
     private String mobileNumber;
     private String source;
-    private List<String> followedUsers;
-    private List<String> followingUsers;
     private int followersCount;
     private int followingCount;
     
@@ -1,7 +1,5 @@
 package pafapp.Fitness.Dto;
 
-import java.util.List;
-
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -20,6 +18,4 @@ public class UserResDto {
     private String profileImage;
 
     private RegistrationSource source;
-
-    private List<String> followedUsers;
 }
@@ -0,0 +1,18 @@
+package pafapp.Fitness.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class UserSuggestionDto {
+    private String userId;
+    private String name;
+    private String profileImage;
+    private int followersCount;
+}
@@ -13,7 +13,9 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import java.util.Date;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+        @Index(name = "idx_comments_post_created", columnList = "post_id, createdAt DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,13 +27,17 @@ public class Comment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Optimistic locking for whole-entity edits; existing rows start at 0
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
     private String content;
 
     private String commentBy;
 
-    @Lob
-    @Column(columnDefinition = "LONGTEXT")
-    private String commentByProfile;
+    @Column(length = 512)
+    private String commentByProfile; // media URL, never an inline data URL
 
     private String commentById;
 
@@ -39,7 +45,7 @@ public class Comment {
     @Temporal(TemporalType.TIMESTAMP)
     private Date createdAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id", nullable = false)
     @JsonBackReference
     private Post post;
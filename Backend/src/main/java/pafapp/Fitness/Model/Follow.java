@@ -0,0 +1,38 @@
+package pafapp.Fitness.Model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Directed edge: followerId follows followeeId.
+// The unique key answers isFollowing; the two (x, created_at, y) indexes cover the paginated listings.
+@Entity
+@Table(name = "follows",
+        uniqueConstraints = @UniqueConstraint(name = "uk_follows_follower_followee", columnNames = {"follower_id", "followee_id"}),
+        indexes = {
+                @Index(name = "idx_follows_follower_created", columnList = "follower_id, created_at, followee_id"),
+                @Index(name = "idx_follows_followee_created", columnList = "followee_id, created_at, follower_id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Follow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "follower_id", nullable = false)
+    private String followerId;
+
+    @Column(name = "followee_id", nullable = false)
+    private String followeeId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
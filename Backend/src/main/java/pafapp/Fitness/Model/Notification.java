@@ -2,10 +2,14 @@ package pafapp.Fitness.Model;
 
 import java.time.LocalDateTime;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,7 +19,10 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_recipient_ts", columnList = "recipientId, timestamp DESC, id DESC"),
+        @Index(name = "idx_notifications_read_ts", columnList = "isRead, timestamp")
+})
 
 public class Notification {
     @Id
@@ -26,8 +33,21 @@ public class Notification {
     private String senderId;     // user who liked/commented
 
     private String postId;
+
+    @Column(length = 255) // comment snippets are cut to fit, see NotificationServiceImpl
     private String message;
 
+    // Coalesced rows: one per (recipient, post, type, window), see NotificationCoalescer
+    @Enumerated(EnumType.STRING)
+    private NotificationType type;
+
+    private int actorCount;
+
+    @Column(length = 512)
+    private String recentActors; // comma-separated sender ids, most recent first
+
+    private LocalDateTime windowStart;
+
     private boolean isRead = false;
 
     private LocalDateTime timestamp;
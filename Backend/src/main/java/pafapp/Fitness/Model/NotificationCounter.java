@@ -0,0 +1,24 @@
+package pafapp.Fitness.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Unread notification count per user, kept in step by the pipeline and the mark-read/delete paths
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "notification_counters")
+
+public class NotificationCounter {
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+
+    private int unread;
+}
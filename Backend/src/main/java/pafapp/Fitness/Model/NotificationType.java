@@ -0,0 +1,7 @@
+package pafapp.Fitness.Model;
+
+public enum NotificationType {
+
+    LIKE,
+    COMMENT
+}
@@ -5,6 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -15,62 +18,75 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        @Index(name = "idx_posts_date_id", columnList = "date DESC, id DESC"),
+        @Index(name = "idx_posts_user_date", columnList = "userId, date DESC, id DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+// Second-level cached. Counter columns are written by JDBC (PostCounterBuffer), which evicts each
+// flushed post, so a cached entry's counts are at most one flush interval behind
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "posts")
 public class Post {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Optimistic locking for whole-entity edits; existing rows start at 0
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
     private String userId;
     private String username;
 
-    @Lob
-    @Column(columnDefinition = "LONGTEXT")
-    private String userProfile;
+    @Column(length = 512)
+    private String userProfile; // media URL, never an inline data URL
 
     private String title;
     private String description;
 
+    // Batch sizes let a page of posts initialize each collection with one IN (...) query
     @ElementCollection(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "post-images")
     @CollectionTable(name = "post_images", joinColumns = @JoinColumn(name = "post_id"))
     @Column(name = "images", columnDefinition = "TEXT")
+    @OrderColumn(name = "image_order") // upload order; older rows are numbered at startup by PostImageOrderMigration
     private List<String> images;
 
-    @Lob
-    @Column(columnDefinition = "TEXT")
+    // Media store URL, streamed with Range support by MediaStreamController
+    @Column(length = 512)
     private String video;
 
     @CreatedDate
     private LocalDateTime date;
 
+    // Counters are only ever changed by atomic UPDATEs (see PostCounterBuffer), never by saving the entity,
+    // so an edit racing with a like cannot write a stale count back
+    @Column(updatable = false)
     private int likeCount;
 
-    private int commentsCount; // ✅ ADD THIS FIELD
+    @Column(updatable = false)
+    private int commentsCount;
 
-    @ElementCollection(fetch = FetchType.LAZY)
-    private List<String> likedBy = new ArrayList<>();
+    @Column(updatable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long viewCount;
 
+    // Likes live in post_likes (see PostLike); likeCount is maintained by atomic UPDATEs
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference
+    @BatchSize(size = 50)
+    @OrderBy("createdAt ASC")
     private List<Comment> comments = new ArrayList<>();
 
     @ElementCollection(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "post-shared-by")
     private List<String> sharedBy = new ArrayList<>();
-
-    // 👍 Utility methods
-    public void addLikedBy(String userId) {
-        likedBy.add(userId);
-        likeCount = likedBy.size();
-    }
-
-    public void removeLikedBy(String userId) {
-        likedBy.remove(userId);
-        likeCount = likedBy.size();
-    }
 }
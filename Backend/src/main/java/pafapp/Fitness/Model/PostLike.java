@@ -0,0 +1,34 @@
+package pafapp.Fitness.Model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One row per (post, user) like; the unique key makes toggles idempotent
+@Entity
+@Table(name = "post_likes",
+        uniqueConstraints = @UniqueConstraint(name = "uk_post_likes_post_user", columnNames = {"post_id", "user_id"}),
+        indexes = @Index(name = "idx_post_likes_user_post", columnList = "user_id, post_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostLike {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
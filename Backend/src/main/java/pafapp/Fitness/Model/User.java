@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import java.util.List;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.UUID;
 
 @Data
@@ -12,31 +15,30 @@ import java.util.UUID;
 @AllArgsConstructor
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 public class User {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
+
+    // Optimistic locking for whole-entity edits; existing rows start at 0
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
     
     private String name;
     private String email;
 
-    @Lob
-    @Column(columnDefinition = "LONGTEXT")
-    private String profileImage;
+    @Column(length = 512)
+    private String profileImage; // media URL, never an inline data URL
     
     private String mobileNumber;
     private String password;
     
     @Enumerated(EnumType.STRING)
     private RegistrationSource source;
-    
-    private int followersCount;
-    private int followingCount;
-    
-    @ElementCollection
-    private List<String> followedUsers;
-    
-    @ElementCollection
-    private List<String> followingUsers;
+
+    // Post/follower/following counts live in user_stats (see UserStats)
 }
\ No newline at end of file
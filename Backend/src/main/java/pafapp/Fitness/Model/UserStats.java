@@ -0,0 +1,27 @@
+package pafapp.Fitness.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Profile header counters, one row per user. Changed only by atomic upserts in UserStatsRepository
+// and repaired nightly by UserStatsReconciliationJob; a missing row means all zeros.
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "user_stats")
+
+public class UserStats {
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+
+    private int postCount;
+    private int followersCount;
+    private int followingCount;
+}
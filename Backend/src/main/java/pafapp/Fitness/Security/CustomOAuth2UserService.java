@@ -10,16 +10,22 @@ import org.springframework.stereotype.Service;
 
 import pafapp.Fitness.Model.User;
 import pafapp.Fitness.Model.RegistrationSource;
+import pafapp.Fitness.Service.SearchService;
+import pafapp.Fitness.cache.UserSuggestIndex;
 import pafapp.Fitness.repository.UserRepository;
 
-import java.util.ArrayList;
-
 @Service
 public class CustomOAuth2UserService implements OAuth2UserService<OAuth2UserRequest, OAuth2User> {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private UserSuggestIndex userSuggestIndex;
+
     @Override
     public OAuth2User loadUser(OAuth2UserRequest userRequest) {
         OAuth2User oauthUser = new DefaultOAuth2UserService().loadUser(userRequest);
@@ -41,11 +47,9 @@ public class CustomOAuth2UserService implements OAuth2UserService<OAuth2UserRequ
             user.setEmail(email);
             user.setProfileImage(picture);
             user.setSource(RegistrationSource.GOOGLE);
-            user.setFollowedUsers(new ArrayList<>());
-            user.setFollowingUsers(new ArrayList<>());
-            user.setFollowersCount(0);
-            user.setFollowingCount(0);
-            userRepository.save(user);
+            User saved = userRepository.save(user);
+            searchService.indexUser(saved);
+            userSuggestIndex.upsert(saved);
         } else if (user.getSource() != RegistrationSource.GOOGLE) {
             // Existing user but not registered via Google
             throw new OAuth2AuthenticationException(
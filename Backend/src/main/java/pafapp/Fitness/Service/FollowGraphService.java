@@ -0,0 +1,21 @@
+package pafapp.Fitness.Service;
+
+import pafapp.Fitness.Dto.CursorPageDto;
+import pafapp.Fitness.Dto.FollowDto;
+
+public interface FollowGraphService {
+
+    // Each returns true when the edge actually changed
+    boolean follow(String followerId, String followeeId);
+
+    boolean unfollow(String followerId, String followeeId);
+
+    // Follows when not following yet, unfollows otherwise; returns the new state
+    boolean toggle(String followerId, String followeeId);
+
+    boolean isFollowing(String followerId, String followeeId);
+
+    CursorPageDto<FollowDto> getFollowers(String userId, String before, int limit);
+
+    CursorPageDto<FollowDto> getFollowing(String userId, String before, int limit);
+}
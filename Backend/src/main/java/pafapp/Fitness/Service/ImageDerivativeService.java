@@ -0,0 +1,18 @@
+package pafapp.Fitness.Service;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface ImageDerivativeService {
+
+    // Queues thumbnail generation for a stored media file (no-op for non-images or if already done)
+    void schedule(String filename);
+
+    // The smallest derivative at least requestedWidth wide, if it has been generated.
+    // A miss queues generation so later requests hit.
+    Optional<Path> findDerivative(String filename, int requestedWidth);
+
+    // True when no derivative at least requestedWidth wide will ever exist (not a derivable image, wider than
+    // every configured width, or the manifest shows the original is narrower), so the original is final
+    boolean isOriginalFinal(String filename, int requestedWidth);
+}
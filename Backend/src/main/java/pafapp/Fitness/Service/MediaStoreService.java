@@ -0,0 +1,33 @@
+package pafapp.Fitness.Service;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+
+import pafapp.Fitness.Dto.UploadSessionDto;
+
+public interface MediaStoreService {
+
+    // True for inline "data:<mime>;base64,..." values that still need to be moved to disk
+    boolean isInline(String value);
+
+    // Stores an inline data URL once (keyed by SHA-256) and returns its short URL.
+    // Anything that is not a data URL (null, blank, http links) is returned unchanged.
+    // IllegalArgumentException for a malformed or oversized data URL, i.e. a bad request.
+    String toReference(String value);
+
+    // Streams content to disk while hashing it and returns the content-addressed URL.
+    // Identical bytes are stored once; sizeHint (-1 if unknown) only picks the buffer size.
+    String store(InputStream content, String contentType, long sizeHint);
+
+    // The stored file behind a media file name; NoSuchElementException if there is none
+    Path locate(String filename);
+
+    // Resumable uploads for large files: start, append chunks at the reported offset, complete
+    UploadSessionDto startUpload(String contentType);
+
+    UploadSessionDto getUpload(String uploadId);
+
+    UploadSessionDto appendChunk(String uploadId, long offset, InputStream chunk);
+
+    UploadSessionDto completeUpload(String uploadId);
+}
@@ -2,13 +2,18 @@ package pafapp.Fitness.Service;
 
 import java.util.List;
 
+import pafapp.Fitness.Dto.CursorPageDto;
 import pafapp.Fitness.Model.Notification;
 
 public interface NotificationService {
-    void sendLikeNotification(String senderId, String postId);
-    void sendCommentNotification(String senderId, String postId, String commentText);
-    List<Notification> getNotificationsForUser(String userId);
+    // Both only enqueue; persistence and WebSocket delivery happen on the notification pipeline
+    void sendLikeNotification(String senderId, String recipientId, String postId);
+    void sendCommentNotification(String senderId, String recipientId, String postId, String commentText);
+    CursorPageDto<Notification> getNotificationsForUser(String userId, String before, int limit);
+    int getUnreadCount(String userId);
     void markAsRead(String notificationId);
+    // Bulk variants run as one UPDATE and return how many notifications changed
+    int markAllRead(String userId);
+    int markRead(String userId, List<String> notificationIds);
     void deleteNotification(String notificationId);
 }
-
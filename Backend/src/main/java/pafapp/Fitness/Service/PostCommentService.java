@@ -2,15 +2,15 @@ package pafapp.Fitness.Service;
 
 import java.util.List;
 
-import pafapp.Fitness.Model.Comment;
+import pafapp.Fitness.Dto.CommentResDto;
 
 public interface PostCommentService {
     
-    List<Comment> getCommentsForPost(Long postId);
+    List<CommentResDto> getCommentsForPost(Long postId);
 
-    Comment addCommentToPost(Long postId, String content, String commentBy, String commentById, String commentByProfile);
+    CommentResDto addCommentToPost(Long postId, String content, String commentBy, String commentById);
 
     void deleteComment(Long postId, Long commentId);
 
-    Comment editComment(Long commentId, String content);
+    CommentResDto editComment(Long commentId, String content);
 }
\ No newline at end of file
@@ -5,14 +5,23 @@ import java.util.Optional;
 
 import org.springframework.http.ResponseEntity;
 
+import pafapp.Fitness.Dto.CursorPageDto;
+import pafapp.Fitness.Dto.FeedPostDto;
+import pafapp.Fitness.Dto.PostDetailDto;
 import pafapp.Fitness.Dto.PostDto;
 import pafapp.Fitness.Model.Post;
 
 public interface PostService {
 
-    List<Post> getAllPosts();
+    // Keyset-paginated home feed; before is the opaque cursor from the previous page,
+    // viewerId (optional) fills in likedByViewer for each card
+    CursorPageDto<FeedPostDto> getFeed(String before, int limit, String viewerId);
 
-    Optional<Post> getPostById(Long id);
+    // Posts from the user and the people they follow, newest first
+    CursorPageDto<FeedPostDto> getHomeTimeline(String userId, String before, int limit);
+
+    // Full post with all comments and shares; viewerId (optional) fills in likedByViewer
+    Optional<PostDetailDto> getPostDetail(Long id, String viewerId);
 
     // ✅ Updated to use PostDto
     Post createPost(PostDto dto);
@@ -23,5 +32,5 @@ public interface PostService {
 
     ResponseEntity<Object> likePost(String postId, String userId);
 
-    List<Post> getPostsByUserId(String userId);
+    List<FeedPostDto> getPostsByUserId(String userId, String viewerId);
 }
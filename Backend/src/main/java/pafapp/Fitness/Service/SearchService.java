@@ -0,0 +1,19 @@
+package pafapp.Fitness.Service;
+
+import pafapp.Fitness.Dto.CursorPageDto;
+import pafapp.Fitness.Dto.SearchHitDto;
+import pafapp.Fitness.Model.Comment;
+import pafapp.Fitness.Model.Post;
+import pafapp.Fitness.Model.User;
+
+public interface SearchService {
+    // Ranked prefix + fuzzy match over posts, comments and users; type narrows to one of them
+    CursorPageDto<SearchHitDto> search(String query, String type, String after, int limit);
+
+    // Index maintenance; applied after the surrounding transaction commits
+    void indexPost(Post post);
+    void removePost(Long postId);
+    void indexComment(Comment comment);
+    void removeComment(Long commentId);
+    void indexUser(User user);
+}
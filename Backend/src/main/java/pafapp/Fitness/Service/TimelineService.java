@@ -0,0 +1,18 @@
+package pafapp.Fitness.Service;
+
+import java.util.List;
+
+import pafapp.Fitness.Model.Post;
+
+public interface TimelineService {
+
+    // Pushes a freshly saved post into its followers' timelines once the transaction commits, in the
+    // background (skipped for celebrity authors)
+    void fanOut(Post post);
+
+    // Post ids of the user's home timeline, newest first, strictly older than beforeId when given
+    List<Long> readTimeline(String userId, Long beforeId, int limit);
+
+    // Drops the cached timeline, e.g. after a follow change; it is rebuilt on the next read
+    void invalidate(String userId);
+}
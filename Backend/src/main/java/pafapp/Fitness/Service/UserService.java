@@ -5,7 +5,9 @@ import java.util.List;
 import org.springframework.http.ResponseEntity;
 
 import pafapp.Fitness.Dto.UserDto;
+import pafapp.Fitness.Dto.UserSuggestionDto;
 import pafapp.Fitness.Model.User;
+import pafapp.Fitness.Model.UserStats;
 
 public interface UserService {
 
@@ -18,7 +20,12 @@ public interface UserService {
 
     User getUserByEmail(String email);
     User getUserByIdRaw(String userId);
-    public int getPostCountByUserId(String userId);
+    // Post/follower/following counters for the profile header (zeros if the user has none yet)
+    UserStats getUserStats(String userId);
+    // Name/avatar edit retried on version conflicts; null arguments leave the field unchanged, null result = no such user
+    User updateProfile(String userId, String name, String profileImage);
+    // Prefix matches on name words and email from the in-memory suggest index, ranked by followers
+    List<UserSuggestionDto> suggestUsers(String query, int limit);
 
 
     
@@ -0,0 +1,34 @@
+package pafapp.Fitness.Service.implementation;
+
+import java.util.Map;
+
+import pafapp.Fitness.Dto.CommentResDto;
+import pafapp.Fitness.Model.Comment;
+import pafapp.Fitness.cache.UserSummary;
+
+// Response assembly shared by the post and comment services: the author's current name and
+// avatar come from UserSummaryCache, the copy on the row is only a fallback for deleted users.
+final class AuthorViews {
+
+    private AuthorViews() {
+    }
+
+    static String name(UserSummary author, String fallback) {
+        return author != null && author.getName() != null ? author.getName() : fallback;
+    }
+
+    static String profileImage(UserSummary author, String fallback) {
+        return author != null ? author.getProfileImage() : fallback;
+    }
+
+    static CommentResDto toCommentDto(Comment comment, Map<String, UserSummary> authors) {
+        UserSummary author = authors.get(comment.getCommentById());
+        return new CommentResDto(
+                comment.getId(),
+                comment.getContent(),
+                name(author, comment.getCommentBy()),
+                comment.getCommentById(),
+                profileImage(author, comment.getCommentByProfile()),
+                comment.getCreatedAt());
+    }
+}
@@ -0,0 +1,457 @@
+package pafapp.Fitness.Service.implementation;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import pafapp.Fitness.Model.NotificationCounter;
+import pafapp.Fitness.repository.NotificationCounterRepository;
+
+// Server-Sent Events for /stream/feed (new post ids, to everyone) and /stream/notifications (the
+// user's unread count). The servlet request goes async as soon as the emitter is returned; each
+// subscriber then gets one virtual thread that parks until there is something to write, or writes a
+// heartbeat comment when idle, so an open stream costs a socket and a parked virtual thread, not a pool thread.
+// The feed keeps a bounded replay log: a reconnect with Last-Event-ID gets what it missed, or a "reset"
+// event when that has already been evicted and the client should refetch.
+// The unread count only ever needs its latest value, so each user has one last-value entry instead of a
+// log: a change bumps its event id and wakes the user's senders, which read the counter themselves. Users
+// with no stream are skipped without a query; their entry is kept for sse.unread.retention after the last
+// stream closes, so a reconnect that missed nothing is answered without one either.
+@Component
+public class EventStreamHub {
+
+    private static final String ALL = "";
+
+    private final Channel feed;
+    private final Map<String, UnreadState> unreadStates = new ConcurrentHashMap<>();
+    // Seeded from the clock so ids keep increasing across restarts
+    private final AtomicLong lastUnreadId = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final NotificationCounterRepository counterRepository;
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("sse-", 0).factory());
+    private final long heartbeatNanos;
+    private final long timeoutMillis;
+    private final int mailboxCapacity;
+    private final long unreadRetentionNanos;
+
+    private final Counter evicted;
+    private final Counter replayed;
+    private final Counter resets;
+
+    public EventStreamHub(
+            NotificationCounterRepository counterRepository,
+            MeterRegistry meterRegistry,
+            @Value("${sse.heartbeat:PT15S}") Duration heartbeat,
+            @Value("${sse.timeout:PT30M}") Duration timeout,
+            @Value("${sse.mailbox-capacity:256}") int mailboxCapacity,
+            @Value("${sse.replay.feed-size:1000}") int feedReplaySize,
+            @Value("${sse.unread.retention:PT2M}") Duration unreadRetention
+    ) {
+        this.counterRepository = counterRepository;
+        this.heartbeatNanos = heartbeat.toNanos();
+        this.timeoutMillis = timeout.toMillis();
+        this.mailboxCapacity = mailboxCapacity;
+        this.unreadRetentionNanos = unreadRetention.toNanos();
+        this.feed = new Channel("feed", feedReplaySize);
+
+        Gauge.builder("sse.subscribers", feed, Channel::subscriberCount)
+                .tag("stream", feed.name)
+                .register(meterRegistry);
+        Gauge.builder("sse.subscribers", unreadStates,
+                        states -> states.values().stream().mapToInt(UnreadState::subscriberCount).sum())
+                .tag("stream", "notifications")
+                .register(meterRegistry);
+        this.evicted = meterRegistry.counter("sse.subscribers.evicted");
+        this.replayed = meterRegistry.counter("sse.events.replayed");
+        this.resets = meterRegistry.counter("sse.replay.resets");
+    }
+
+    public SseEmitter subscribeFeed(String lastEventId) {
+        return feed.subscribe(ALL, lastEventId);
+    }
+
+    // A fresh client, or one whose Last-Event-ID is behind the user's latest change, is sent the current count
+    public SseEmitter subscribeNotifications(String userId, String lastEventId) {
+        long since = -1;
+        if (lastEventId != null) {
+            try {
+                since = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                // Not one of ours: treat as a fresh client
+            }
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        UnreadSubscriber subscriber = new UnreadSubscriber(emitter, since);
+        // compute() keeps the entry from being purged between lookup and registration
+        unreadStates.compute(userId, (id, state) -> {
+            UnreadState current = state != null ? state : new UnreadState(userId, lastUnreadId.incrementAndGet());
+            current.add(subscriber);
+            return current;
+        });
+        start(subscriber);
+        return emitter;
+    }
+
+    public void postCreated(Long postId) {
+        afterCommit(() -> feed.publish(ALL, "post", Map.of("postId", postId)));
+    }
+
+    // Only marks the change: the count is read by the user's senders, and not at all when nobody listens
+    public void unreadChanged(String userId) {
+        afterCommit(() -> {
+            UnreadState state = unreadStates.get(userId);
+            if (state != null) {
+                state.changed(lastUnreadId.incrementAndGet());
+            }
+        });
+    }
+
+    // Drops entries whose last stream closed more than sse.unread.retention ago
+    @Scheduled(fixedDelayString = "${sse.unread.retention:PT2M}")
+    public void purgeIdleUnreadStates() {
+        long now = System.nanoTime();
+        for (String userId : unreadStates.keySet()) {
+            unreadStates.computeIfPresent(userId, (id, state) -> state.idleLongerThan(now, unreadRetentionNanos) ? null : state);
+        }
+    }
+
+    private int unreadCount(String userId) {
+        return counterRepository.findById(userId).map(NotificationCounter::getUnread).orElse(0);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Interrupts every sender, which completes its emitter; clients reconnect with Last-Event-ID
+        senders.shutdownNow();
+    }
+
+    private static final class Event {
+        private final long id;
+        private final String key;
+        private final String name;
+        private final Object data;
+
+        private Event(long id, String key, String name, Object data) {
+            this.id = id;
+            this.key = key;
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    // A replayable event stream: its log and subscribers by key (ALL for the feed)
+    private final class Channel {
+        private final String name;
+        private final int replaySize;
+        private final Deque<Event> log = new ArrayDeque<>();
+        private final Map<String, Set<FeedSubscriber>> subscribers = new ConcurrentHashMap<>();
+        // Seeded from the clock so ids keep increasing across restarts and old Last-Event-IDs read as gaps
+        private long lastId = System.currentTimeMillis() * 1000;
+
+        private Channel(String name, int replaySize) {
+            this.name = name;
+            this.replaySize = Math.max(1, replaySize);
+        }
+
+        private SseEmitter subscribe(String key, String lastEventId) {
+            SseEmitter emitter = new SseEmitter(timeoutMillis);
+            FeedSubscriber subscriber = new FeedSubscriber(this, key, emitter);
+            // Backlog and registration happen under the log lock, so nothing is missed or sent twice
+            synchronized (this) {
+                if (lastEventId != null) {
+                    subscriber.backlog = replay(key, lastEventId);
+                    subscriber.reset = subscriber.backlog == null;
+                }
+                subscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+            }
+            start(subscriber);
+            return emitter;
+        }
+
+        // Null asks the client to reset: its position is older than the log or was never issued here
+        private List<Event> replay(String key, String lastEventId) {
+            long since;
+            try {
+                since = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            long oldest = log.isEmpty() ? lastId + 1 : log.peekFirst().id;
+            if (since > lastId || since < oldest - 1) {
+                resets.increment();
+                return null;
+            }
+            List<Event> missed = new ArrayList<>();
+            for (Event event : log) {
+                if (event.id > since && (key.equals(ALL) || key.equals(event.key))) {
+                    missed.add(event);
+                }
+            }
+            replayed.increment(missed.size());
+            return missed;
+        }
+
+        private synchronized void publish(String key, String eventName, Object data) {
+            Event event = new Event(++lastId, key, eventName, data);
+            log.addLast(event);
+            if (log.size() > replaySize) {
+                log.removeFirst();
+            }
+            Set<FeedSubscriber> targets = subscribers.get(key);
+            if (targets != null) {
+                targets.forEach(subscriber -> subscriber.offer(event));
+            }
+        }
+
+        private void remove(FeedSubscriber subscriber) {
+            subscribers.computeIfPresent(subscriber.key, (k, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+
+        private int subscriberCount() {
+            return subscribers.values().stream().mapToInt(Set::size).sum();
+        }
+    }
+
+    private void start(Stream stream) {
+        stream.emitter.onCompletion(stream::close);
+        stream.emitter.onTimeout(stream::close);
+        stream.emitter.onError(e -> stream.close());
+        senders.execute(stream::run);
+    }
+
+    // One open emitter and the virtual thread writing to it
+    private abstract static class Stream {
+        protected final SseEmitter emitter;
+        protected volatile boolean closed;
+        private volatile Thread sender;
+
+        Stream(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void run() {
+            sender = Thread.currentThread();
+            try {
+                write();
+            } catch (IOException | IllegalStateException e) {
+                // Client went away (or the emitter already completed); nothing to report
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        // Writes until closed
+        protected abstract void write() throws IOException, InterruptedException;
+
+        protected abstract void detach();
+
+        protected void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            detach();
+            emitter.complete();
+            Thread current = sender;
+            if (current != null && current != Thread.currentThread()) {
+                current.interrupt(); // wake it from its wait instead of at the next heartbeat
+            }
+        }
+    }
+
+    private final class FeedSubscriber extends Stream {
+        private final Channel channel;
+        private final String key;
+        private final BlockingQueue<Event> mailbox = new ArrayBlockingQueue<>(mailboxCapacity);
+        // Both set before the sender starts
+        private List<Event> backlog;
+        private boolean reset;
+
+        private FeedSubscriber(Channel channel, String key, SseEmitter emitter) {
+            super(emitter);
+            this.channel = channel;
+            this.key = key;
+        }
+
+        // Called under the channel lock; a client that cannot keep up is dropped and resumes from the log
+        private void offer(Event event) {
+            if (!closed && !mailbox.offer(event)) {
+                evicted.increment();
+                close();
+            }
+        }
+
+        @Override
+        protected void write() throws IOException, InterruptedException {
+            if (reset) {
+                emitter.send(SseEmitter.event().name("reset").data(Map.of()));
+            } else if (backlog != null) {
+                for (Event event : backlog) {
+                    send(event);
+                }
+            }
+            backlog = null;
+            while (!closed) {
+                Event event = mailbox.poll(heartbeatNanos, TimeUnit.NANOSECONDS);
+                if (event != null) {
+                    send(event);
+                } else {
+                    heartbeat();
+                }
+            }
+        }
+
+        private void send(Event event) throws IOException {
+            emitter.send(SseEmitter.event().id(Long.toString(event.id)).name(event.name).data(event.data));
+        }
+
+        @Override
+        protected void detach() {
+            channel.remove(this);
+        }
+    }
+
+    // Latest unread change of one user and the streams listening to it
+    private final class UnreadState {
+        private final String userId;
+        private final Set<UnreadSubscriber> subscribers = new HashSet<>();
+        private long id;
+        private Integer unread; // null until a sender has read the count for id
+        private long idleSince = System.nanoTime();
+
+        private UnreadState(String userId, long id) {
+            this.userId = userId;
+            this.id = id;
+        }
+
+        private synchronized void add(UnreadSubscriber subscriber) {
+            subscriber.state = this;
+            subscribers.add(subscriber);
+        }
+
+        private synchronized void remove(UnreadSubscriber subscriber) {
+            if (subscribers.remove(subscriber) && subscribers.isEmpty()) {
+                idleSince = System.nanoTime();
+            }
+        }
+
+        private synchronized void changed(long changeId) {
+            id = changeId;
+            unread = null;
+            subscribers.forEach(UnreadSubscriber::wake);
+        }
+
+        private synchronized boolean idleLongerThan(long now, long nanos) {
+            return subscribers.isEmpty() && now - idleSince > nanos;
+        }
+
+        private synchronized int subscriberCount() {
+            return subscribers.size();
+        }
+
+        // The latest change as {id, unread} when it is newer than since, otherwise null. The count is
+        // read outside the lock (no monitor held across JDBC); it was read after the change committed,
+        // so it is at least as new as the id it is sent with
+        private long[] newerThan(long since) {
+            long changeId;
+            Integer known;
+            synchronized (this) {
+                if (id <= since) {
+                    return null;
+                }
+                changeId = id;
+                known = unread;
+            }
+            if (known == null) {
+                known = unreadCount(userId);
+                synchronized (this) {
+                    if (id == changeId && unread == null) {
+                        unread = known; // shared by the user's other tabs
+                    }
+                }
+            }
+            return new long[] { changeId, known };
+        }
+    }
+
+    private final class UnreadSubscriber extends Stream {
+        private final BlockingQueue<Boolean> wakeup = new ArrayBlockingQueue<>(1);
+        private long sentId;
+        // Set when registered, before the sender starts
+        private UnreadState state;
+
+        private UnreadSubscriber(SseEmitter emitter, long since) {
+            super(emitter);
+            this.sentId = since;
+        }
+
+        private void wake() {
+            wakeup.offer(Boolean.TRUE); // already pending when full; changes in between collapse into one send
+        }
+
+        @Override
+        protected void write() throws IOException, InterruptedException {
+            while (!closed) {
+                long[] latest = state.newerThan(sentId);
+                if (latest != null) {
+                    emitter.send(SseEmitter.event().id(Long.toString(latest[0])).name("unread")
+                            .data(Map.of("unread", (int) latest[1])));
+                    sentId = latest[0];
+                } else if (wakeup.poll(heartbeatNanos, TimeUnit.NANOSECONDS) == null) {
+                    heartbeat();
+                }
+            }
+        }
+
+        @Override
+        protected void detach() {
+            state.remove(this);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package pafapp.Fitness.Service.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.AllArgsConstructor;
+import pafapp.Fitness.Dto.CursorPageDto;
+import pafapp.Fitness.Dto.FollowDto;
+import pafapp.Fitness.Dto.KeysetCursor;
+import pafapp.Fitness.Model.Follow;
+import pafapp.Fitness.Model.User;
+import pafapp.Fitness.Service.FollowGraphService;
+import pafapp.Fitness.Service.TimelineService;
+import pafapp.Fitness.cache.UserSuggestIndex;
+import pafapp.Fitness.repository.FollowRepository;
+import pafapp.Fitness.repository.UserRepository;
+import pafapp.Fitness.repository.UserStatsRepository;
+
+@Service
+@AllArgsConstructor
+public class FollowGraphServiceImpl implements FollowGraphService {
+
+    private static final int MAX_PAGE_LIMIT = 100;
+
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final UserStatsRepository userStatsRepository;
+    private final TimelineService timelineService;
+    private final UserSuggestIndex userSuggestIndex;
+
+    @Override
+    @Transactional
+    public boolean follow(String followerId, String followeeId) {
+        if (followerId.equals(followeeId)) {
+            throw new IllegalArgumentException("Users cannot follow themselves");
+        }
+        if (userRepository.countByIds(List.of(followerId, followeeId)) < 2) {
+            throw new IllegalArgumentException("User not found: " + followerId + " or " + followeeId);
+        }
+        if (followRepository.insertIfAbsent(followerId, followeeId) == 0) {
+            return false;
+        }
+        userStatsRepository.adjustFollowingCount(followerId, 1);
+        userStatsRepository.adjustFollowersCount(followeeId, 1);
+        userSuggestIndex.followersChanged(followeeId, 1);
+        timelineService.invalidate(followerId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean unfollow(String followerId, String followeeId) {
+        if (followRepository.deleteEdge(followerId, followeeId) == 0) {
+            return false;
+        }
+        userStatsRepository.adjustFollowingCount(followerId, -1);
+        userStatsRepository.adjustFollowersCount(followeeId, -1);
+        userSuggestIndex.followersChanged(followeeId, -1);
+        timelineService.invalidate(followerId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean toggle(String followerId, String followeeId) {
+        if (unfollow(followerId, followeeId)) {
+            return false;
+        }
+        follow(followerId, followeeId);
+        return true;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isFollowing(String followerId, String followeeId) {
+        return followRepository.existsByFollowerIdAndFolloweeId(followerId, followeeId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<FollowDto> getFollowers(String userId, String before, int limit) {
+        int pageSize = clamp(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Follow> edges;
+        if (before == null || before.isBlank()) {
+            edges = followRepository.findFollowersFirstPage(userId, page);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(before);
+            edges = followRepository.findFollowersBefore(userId, cursor.getTimestamp(), cursor.idAsLong(), page);
+        }
+        return toPage(edges, pageSize, Follow::getFollowerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<FollowDto> getFollowing(String userId, String before, int limit) {
+        int pageSize = clamp(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Follow> edges;
+        if (before == null || before.isBlank()) {
+            edges = followRepository.findFollowingFirstPage(userId, page);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(before);
+            edges = followRepository.findFollowingBefore(userId, cursor.getTimestamp(), cursor.idAsLong(), page);
+        }
+        return toPage(edges, pageSize, Follow::getFolloweeId);
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+    }
+
+    // otherSide picks the user shown in the listing (the follower or the followee)
+    private CursorPageDto<FollowDto> toPage(List<Follow> edges, int pageSize, Function<Follow, String> otherSide) {
+        boolean hasMore = edges.size() > pageSize;
+        if (hasMore) {
+            edges = edges.subList(0, pageSize);
+        }
+
+        // One findAllById for the whole page instead of a lookup per edge
+        List<String> userIds = edges.stream().map(otherSide).toList();
+        Map<String, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<FollowDto> items = new ArrayList<>(edges.size());
+        for (Follow edge : edges) {
+            User user = users.get(otherSide.apply(edge));
+            items.add(new FollowDto(
+                    otherSide.apply(edge),
+                    user != null ? user.getName() : null,
+                    user != null ? user.getProfileImage() : null,
+                    edge.getCreatedAt()));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Follow last = edges.get(edges.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId().toString()).encode();
+        }
+        return new CursorPageDto<>(items, nextCursor);
+    }
+}
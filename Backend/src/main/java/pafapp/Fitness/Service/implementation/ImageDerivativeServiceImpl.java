@@ -0,0 +1,260 @@
+package pafapp.Fitness.Service.implementation;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import pafapp.Fitness.Service.ImageDerivativeService;
+
+// Builds resized copies of uploaded images on a small bounded pool. Derivatives live next to the
+// originals as derivatives/<hash>-w<width>.<ext>, with a <hash>.json manifest listing what exists.
+// ImageIO has no WebP encoder, so JPEG originals are recompressed at media.derivatives.quality instead,
+// and png/gif derivatives stay PNG. Formats ImageIO cannot read (webp, video) are skipped.
+@Service
+public class ImageDerivativeServiceImpl implements ImageDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeServiceImpl.class);
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "png", "gif");
+
+    private final Path mediaDir;
+    private final Path derivativeDir;
+    private final List<Integer> widths;
+    private final float jpegQuality;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ImageDerivativeServiceImpl(
+            ObjectMapper objectMapper,
+            @Value("${media.storage-dir:uploads/media}") String storageDir,
+            @Value("${media.derivatives.widths:160,480,1080}") List<Integer> widths,
+            @Value("${media.derivatives.quality:0.8}") float jpegQuality,
+            @Value("${media.derivatives.threads:2}") int threads,
+            @Value("${media.derivatives.queue-capacity:500}") int queueCapacity
+    ) {
+        this.objectMapper = objectMapper;
+        this.mediaDir = Paths.get(storageDir);
+        this.derivativeDir = mediaDir.resolve("derivatives");
+        this.widths = widths.stream().sorted().toList();
+        this.jpegQuality = jpegQuality;
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    @Override
+    public void schedule(String filename) {
+        if (!isImage(filename) || Files.exists(manifestFile(filename)) || !inFlight.add(filename)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(filename);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Failed to build derivatives for {}", filename, e);
+                } finally {
+                    inFlight.remove(filename);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full: drop the job, the next request for this image queues it again
+            inFlight.remove(filename);
+        }
+    }
+
+    @Override
+    public Optional<Path> findDerivative(String filename, int requestedWidth) {
+        if (!isImage(filename) || filename.contains("/") || filename.contains("..")) {
+            return Optional.empty();
+        }
+        for (int width : widths) {
+            if (width >= requestedWidth) {
+                Path derivative = derivativeFile(filename, width);
+                if (Files.exists(derivative)) {
+                    return Optional.of(derivative);
+                }
+                // Not built yet, or the original is narrower than this width
+                if (!Files.exists(manifestFile(filename))) {
+                    schedule(filename);
+                }
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean isOriginalFinal(String filename, int requestedWidth) {
+        if (!isImage(filename) || filename.contains("/") || filename.contains("..")) {
+            return true;
+        }
+        for (int width : widths) {
+            if (width >= requestedWidth) {
+                // Manifest written and still no file at this width: the original is narrower (never upscaled)
+                return Files.exists(manifestFile(filename)) && !Files.exists(derivativeFile(filename, width));
+            }
+        }
+        return true;
+    }
+
+    private void generate(String filename) throws IOException {
+        BufferedImage original = ImageIO.read(mediaDir.resolve(filename).toFile());
+        if (original == null) {
+            return;
+        }
+        Files.createDirectories(derivativeDir);
+
+        List<Map<String, Object>> derivatives = new ArrayList<>();
+        for (int width : widths) {
+            // Never upscale: the original already serves every size at or above its own width
+            if (width >= original.getWidth()) {
+                break;
+            }
+            int height = Math.max(1, Math.round((float) original.getHeight() * width / original.getWidth()));
+            Path target = derivativeFile(filename, width);
+            write(resize(original, width, height), target);
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("width", width);
+            entry.put("height", height);
+            entry.put("file", derivativeDir.relativize(target).toString());
+            entry.put("bytes", Files.size(target));
+            derivatives.add(entry);
+        }
+
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("original", filename);
+        manifest.put("width", original.getWidth());
+        manifest.put("height", original.getHeight());
+        manifest.put("derivatives", derivatives);
+        writeAtomically(manifestFile(filename), objectMapper.writeValueAsBytes(manifest));
+    }
+
+    // Halves the image until close to the target, then finishes with one bilinear pass
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private void write(BufferedImage image, Path target) throws IOException {
+        Path tmp = Files.createTempFile(derivativeDir, "derivative-", ".tmp");
+        try {
+            if (target.getFileName().toString().endsWith(".png")) {
+                ImageIO.write(image, "png", tmp.toFile());
+            } else {
+                Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+                ImageWriter writer = writers.next();
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+                    writer.setOutput(out);
+                    writer.write(null, new IIOImage(image, null, null), param);
+                } finally {
+                    writer.dispose();
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void writeAtomically(Path target, byte[] bytes) throws IOException {
+        Path tmp = Files.createTempFile(derivativeDir, "manifest-", ".tmp");
+        try {
+            Files.write(tmp, bytes);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // JPEG originals are recompressed as JPEG; png and gif stay lossless since they may carry alpha
+    private Path derivativeFile(String filename, int width) {
+        String ext = extension(filename).equals("jpg") ? "jpg" : "png";
+        return derivativeDir.resolve(baseName(filename) + "-w" + width + "." + ext);
+    }
+
+    private Path manifestFile(String filename) {
+        return derivativeDir.resolve(baseName(filename) + ".json");
+    }
+
+    private static boolean isImage(String filename) {
+        return filename != null && IMAGE_EXTENSIONS.contains(extension(filename));
+    }
+
+    private static String baseName(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? filename : filename.substring(0, dot);
+    }
+
+    private static String extension(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? "" : filename.substring(dot + 1).toLowerCase();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
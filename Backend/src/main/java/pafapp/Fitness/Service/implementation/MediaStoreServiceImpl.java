@@ -0,0 +1,361 @@
+package pafapp.Fitness.Service.implementation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import pafapp.Fitness.Dto.UploadSessionDto;
+import pafapp.Fitness.Service.ImageDerivativeService;
+import pafapp.Fitness.Service.MediaStoreService;
+
+@Service
+public class MediaStoreServiceImpl implements MediaStoreService {
+
+    private static final String DATA_URL_PREFIX = "data:";
+    private static final String BASE64_MARKER = ";base64,";
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final String STAGING_SUFFIX = ".complete";
+
+    // Small buffers for avatars and thumbnails, large ones so big videos need few syscalls
+    private static final int SMALL_BUFFER = 16 * 1024;
+    private static final int LARGE_BUFFER = 1024 * 1024;
+
+    private static final Logger log = LoggerFactory.getLogger(MediaStoreServiceImpl.class);
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/png", "png",
+            "image/jpeg", "jpg",
+            "image/jpg", "jpg",
+            "image/gif", "gif",
+            "image/webp", "webp",
+            "video/mp4", "mp4",
+            "video/webm", "webm"
+    );
+
+    private final Path mediaDir;
+    private final Path partialDir;
+    private final String publicBaseUrl;
+    private final long maxUploadSize;
+    private final long maxChunkSize;
+    private final Duration sessionTtl;
+    private final ImageDerivativeService imageDerivativeService;
+
+    public MediaStoreServiceImpl(
+            ImageDerivativeService imageDerivativeService,
+            @Value("${media.storage-dir:uploads/media}") String storageDir,
+            @Value("${media.public-base-url:http://localhost:8080/uploads/media}") String publicBaseUrl,
+            @Value("${media.upload.max-size:1073741824}") long maxUploadSize,
+            @Value("${media.upload.max-chunk-size:8388608}") long maxChunkSize,
+            @Value("${media.upload.session-ttl:PT24H}") Duration sessionTtl
+    ) {
+        this.mediaDir = Paths.get(storageDir);
+        this.partialDir = mediaDir.resolve(".partial");
+        this.publicBaseUrl = publicBaseUrl;
+        this.maxUploadSize = maxUploadSize;
+        this.maxChunkSize = maxChunkSize;
+        this.sessionTtl = sessionTtl;
+        this.imageDerivativeService = imageDerivativeService;
+    }
+
+    @Override
+    public boolean isInline(String value) {
+        return value != null && value.startsWith(DATA_URL_PREFIX);
+    }
+
+    @Override
+    public String toReference(String value) {
+        if (!isInline(value)) {
+            return value;
+        }
+
+        int marker = value.indexOf(BASE64_MARKER);
+        if (marker < 0) {
+            throw new IllegalArgumentException("Only base64 data URLs are supported");
+        }
+        String mimeType = value.substring(DATA_URL_PREFIX.length(), marker);
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(value.substring(marker + BASE64_MARKER.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed base64 data URL", e);
+        }
+        return store(new ByteArrayInputStream(bytes), mimeType, bytes.length);
+    }
+
+    @Override
+    public String store(InputStream content, String contentType, long sizeHint) {
+        if (sizeHint > maxUploadSize) {
+            throw new IllegalArgumentException("Upload exceeds " + maxUploadSize + " bytes");
+        }
+        MessageDigest digest = sha256();
+        try {
+            Files.createDirectories(mediaDir);
+            Path tmp = Files.createTempFile(mediaDir, "upload-", ".tmp");
+            try {
+                try (ReadableByteChannel in = Channels.newChannel(content);
+                     FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    copy(in, out, digest, maxUploadSize, bufferFor(sizeHint));
+                }
+                return publish(tmp, HexFormat.of().formatHex(digest.digest()), contentType);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store upload", e);
+        }
+    }
+
+    @Override
+    public Path locate(String filename) {
+        // Only flat content-addressed names: no separators, no hidden files such as .partial
+        if (filename == null || !filename.matches("[A-Za-z0-9_-][A-Za-z0-9._-]*") || filename.contains("..")) {
+            throw new NoSuchElementException("Unknown media " + filename);
+        }
+        Path file = mediaDir.resolve(filename);
+        if (!Files.isRegularFile(file)) {
+            throw new NoSuchElementException("Unknown media " + filename);
+        }
+        return file;
+    }
+
+    @Override
+    public UploadSessionDto startUpload(String contentType) {
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Files.createDirectories(partialDir);
+            // The extension travels in the file name so a session survives a restart
+            Files.createFile(partialDir.resolve(uploadId + "." + extension(contentType) + PARTIAL_SUFFIX));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start upload", e);
+        }
+        return new UploadSessionDto(uploadId, 0, null);
+    }
+
+    @Override
+    public UploadSessionDto getUpload(String uploadId) {
+        try {
+            return new UploadSessionDto(uploadId, Files.size(partialFile(uploadId)), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read upload " + uploadId, e);
+        }
+    }
+
+    @Override
+    public UploadSessionDto appendChunk(String uploadId, long offset, InputStream chunk) {
+        Path partial = partialFile(uploadId);
+        try (FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE);
+             ReadableByteChannel in = Channels.newChannel(chunk)) {
+            FileLock lock = tryLock(out, uploadId);
+            try {
+                long size = out.size();
+                if (offset != size) {
+                    throw new IllegalStateException("Upload " + uploadId + " is at offset " + size + ", not " + offset);
+                }
+                out.position(size);
+                long limit = Math.min(maxChunkSize, maxUploadSize - size);
+                try {
+                    copy(in, out, null, limit, LARGE_BUFFER);
+                } catch (IllegalArgumentException e) {
+                    // Drop the partial chunk so the client can resend it from the same offset
+                    out.truncate(size);
+                    throw e;
+                }
+                return new UploadSessionDto(uploadId, out.size(), null);
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to upload " + uploadId, e);
+        }
+    }
+
+    @Override
+    public UploadSessionDto completeUpload(String uploadId) {
+        Path partial = partialFile(uploadId);
+        String name = partial.getFileName().toString();
+        String ext = name.substring(uploadId.length() + 1, name.length() - PARTIAL_SUFFIX.length());
+        Path staging = partialDir.resolve(uploadId + "." + ext + STAGING_SUFFIX);
+
+        // Waits out an in-flight append via the lock, then takes the file out of the session under it:
+        // later appends no longer find it, so the bytes cannot change between hashing and publishing
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = tryLock(channel, uploadId);
+            try {
+                Files.move(partial, staging, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to complete upload " + uploadId, e);
+        }
+
+        try {
+            MessageDigest digest = sha256();
+            try (FileChannel in = FileChannel.open(staging, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(LARGE_BUFFER);
+                while (in.read(buffer) >= 0) {
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.clear();
+                }
+            }
+            long size = Files.size(staging);
+            String url = publishAs(staging, HexFormat.of().formatHex(digest.digest()) + "." + ext);
+            Files.deleteIfExists(staging);
+            return new UploadSessionDto(uploadId, size, url);
+        } catch (IOException | RuntimeException e) {
+            // Hand the bytes back to the session so the client can retry the completion
+            restore(staging, partial);
+            if (e instanceof IOException io) {
+                throw new UncheckedIOException("Failed to complete upload " + uploadId, io);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    private static void restore(Path staging, Path partial) {
+        try {
+            if (Files.exists(staging)) {
+                Files.move(staging, partial, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to restore upload {}", partial, e);
+        }
+    }
+
+    // Abandoned resumable uploads are removed once they have been idle for media.upload.session-ttl
+    @Scheduled(fixedDelayString = "${media.upload.cleanup-interval:PT1H}")
+    public void purgeStaleUploads() {
+        if (!Files.isDirectory(partialDir)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(sessionTtl);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(partialDir,
+                "*{" + PARTIAL_SUFFIX + "," + STAGING_SUFFIX + "}")) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to purge stale uploads in {}", partialDir, e);
+        }
+    }
+
+    private String publish(Path tmp, String hash, String contentType) throws IOException {
+        return publishAs(tmp, hash + "." + extension(contentType));
+    }
+
+    // Same bytes always land on the same name, so an existing file is already correct
+    private String publishAs(Path source, String filename) throws IOException {
+        Path target = mediaDir.resolve(filename);
+        if (!Files.exists(target)) {
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // A concurrent upload of the same content won the race
+            }
+        }
+        imageDerivativeService.schedule(filename);
+        return publicBaseUrl + "/" + filename;
+    }
+
+    private Path partialFile(String uploadId) {
+        try {
+            // Parsing rejects anything that is not a plain UUID, so ids cannot escape partialDir
+            UUID.fromString(uploadId);
+        } catch (IllegalArgumentException e) {
+            throw new NoSuchElementException("Unknown upload " + uploadId);
+        }
+        if (Files.isDirectory(partialDir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(partialDir, uploadId + ".*" + PARTIAL_SUFFIX)) {
+                for (Path file : files) {
+                    return file;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to look up upload " + uploadId, e);
+            }
+        }
+        throw new NoSuchElementException("Unknown upload " + uploadId);
+    }
+
+    private static FileLock tryLock(FileChannel channel, String uploadId) throws IOException {
+        FileLock lock;
+        try {
+            lock = channel.tryLock(0, Long.MAX_VALUE, false);
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new IllegalStateException("Upload " + uploadId + " is busy");
+        }
+        return lock;
+    }
+
+    // Copies at most limit bytes, hashing on the way when a digest is given
+    private static long copy(ReadableByteChannel in, FileChannel out, MessageDigest digest, long limit, int bufferSize)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        long total = 0;
+        while (in.read(buffer) >= 0) {
+            buffer.flip();
+            total += buffer.remaining();
+            if (total > limit) {
+                throw new IllegalArgumentException("Upload exceeds " + limit + " bytes");
+            }
+            if (digest != null) {
+                digest.update(buffer.duplicate());
+            }
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+        return total;
+    }
+
+    private static int bufferFor(long sizeHint) {
+        return sizeHint >= 0 && sizeHint <= SMALL_BUFFER * 4L ? SMALL_BUFFER : LARGE_BUFFER;
+    }
+
+    private static String extension(String contentType) {
+        return contentType == null ? "bin" : EXTENSIONS.getOrDefault(contentType.toLowerCase(), "bin");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
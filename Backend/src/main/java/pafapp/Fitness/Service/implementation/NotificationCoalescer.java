@@ -0,0 +1,156 @@
+package pafapp.Fitness.Service.implementation;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pafapp.Fitness.Dto.NotificationEvent;
+import pafapp.Fitness.Model.Notification;
+import pafapp.Fitness.repository.NotificationRepository;
+
+// Folds events into one row per (recipient, post, type, time window) instead of one row per event.
+// The row id is derived from that key, so a batch becomes a JDBC batch of upserts on the primary key.
+// Every row a batch touches is handed on with its new aggregate (actor count, recent actors); clients
+// replace the entry by id, and NotificationPushBatcher debounces it to one push per interval.
+@Component
+public class NotificationCoalescer {
+
+    // Assignments run left to right: actor_count reads recent_actors before it is rewritten.
+    // An actor already among the 5 most recent (e.g. unlike + re-like) is not counted twice.
+    private static final String UPSERT_SQL = "INSERT INTO notifications "
+            + "(id, recipient_id, sender_id, post_id, type, message, actor_count, recent_actors, window_start, is_read, timestamp) "
+            + "VALUES (?, ?, ?, ?, ?, ?, 1, ?, ?, false, ?) "
+            + "ON DUPLICATE KEY UPDATE "
+            + "actor_count = actor_count + IF(FIND_IN_SET(VALUES(sender_id), recent_actors) > 0, 0, 1), "
+            + "recent_actors = IF(FIND_IN_SET(VALUES(sender_id), recent_actors) > 0, recent_actors, "
+            + "SUBSTRING_INDEX(CONCAT(VALUES(sender_id), ',', recent_actors), ',', 5)), "
+            + "sender_id = VALUES(sender_id), "
+            + "message = VALUES(message), "
+            + "timestamp = VALUES(timestamp), "
+            + "is_read = false";
+
+    private static final String COUNTER_SQL = "INSERT INTO notification_counters (user_id, unread) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE unread = unread + VALUES(unread)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long windowMillis;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        private final List<Notification> touched;  // every row the batch upserted, read back once each
+        private final Set<String> unreadChanged;   // recipients whose unread counter moved
+    }
+
+    public NotificationCoalescer(
+            JdbcTemplate jdbcTemplate,
+            NotificationRepository notificationRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${notifications.coalesce.window:PT10M}") Duration window
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationRepository = notificationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.windowMillis = window.toMillis();
+    }
+
+    // Upserts the batch and returns the aggregated rows it touched plus whose unread counters changed
+    public Result apply(List<NotificationEvent> batch) {
+        List<String> ids = new ArrayList<>(batch.size());
+        List<Long> windowStarts = new ArrayList<>(batch.size());
+        for (NotificationEvent event : batch) {
+            long windowStart = windowStart(event.getTimestamp());
+            ids.add(rowId(event, windowStart));
+            windowStarts.add(windowStart);
+        }
+
+        Set<String> unreadChanged = transactionTemplate.execute(status -> {
+            // Counters first: they need the read state from before the upsert resets it, read under row locks
+            // held to commit so mark-read cannot change it in between
+            Set<String> changed = adjustUnreadCounters(batch, ids);
+            upsert(batch, ids, windowStarts);
+            return changed;
+        });
+
+        // Read back so the push carries the aggregated count, not just this batch's share
+        return new Result(notificationRepository.findAllById(new LinkedHashSet<>(ids)), unreadChanged);
+    }
+
+    private void upsert(List<NotificationEvent> batch, List<String> ids, List<Long> windowStarts) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, indexes(batch.size()), batch.size(), (ps, i) -> {
+            NotificationEvent event = batch.get(i);
+            ps.setString(1, ids.get(i));
+            ps.setString(2, event.getRecipientId());
+            ps.setString(3, event.getSenderId());
+            ps.setString(4, event.getPostId());
+            ps.setString(5, event.getType().name());
+            ps.setString(6, event.getMessage());
+            ps.setString(7, event.getSenderId());
+            ps.setTimestamp(8, new Timestamp(windowStarts.get(i)));
+            ps.setTimestamp(9, Timestamp.valueOf(event.getTimestamp()));
+        });
+    }
+
+    // +1 unread for every row this batch creates or turns from read back to unread
+    private Set<String> adjustUnreadCounters(List<NotificationEvent> batch, List<String> ids) {
+        Map<String, Boolean> readStates = new HashMap<>();
+        for (Object[] row : notificationRepository.findReadStates(new LinkedHashSet<>(ids))) {
+            readStates.put((String) row[0], (Boolean) row[1]);
+        }
+
+        Map<String, Integer> deltas = new HashMap<>();
+        Set<String> counted = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            String id = ids.get(i);
+            if (counted.add(id) && readStates.getOrDefault(id, Boolean.TRUE)) {
+                deltas.merge(batch.get(i).getRecipientId(), 1, Integer::sum);
+            }
+        }
+        if (!deltas.isEmpty()) {
+            List<Map.Entry<String, Integer>> rows = new ArrayList<>(deltas.entrySet());
+            jdbcTemplate.batchUpdate(COUNTER_SQL, rows, rows.size(), (ps, row) -> {
+                ps.setString(1, row.getKey());
+                ps.setInt(2, row.getValue());
+            });
+        }
+        return deltas.keySet();
+    }
+
+    private long windowStart(LocalDateTime timestamp) {
+        long epochMillis = timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return epochMillis - Math.floorMod(epochMillis, windowMillis);
+    }
+
+    private static String rowId(NotificationEvent event, long windowStart) {
+        String key = event.coalescingKey() + "|" + Instant.ofEpochMilli(windowStart);
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static List<Integer> indexes(int size) {
+        List<Integer> indexes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,255 @@
+package pafapp.Fitness.Service.implementation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import pafapp.Fitness.Dto.NotificationDto;
+import pafapp.Fitness.Dto.NotificationEvent;
+import pafapp.Fitness.Model.Notification;
+
+// Takes notification work off the request path: events go onto a bounded in-process queue and a
+// virtual-thread worker drains them in batches (one JDBC batch upsert via NotificationCoalescer,
+// then hands each recipient's notifications to NotificationPushBatcher, skipping recipients with no
+// live WebSocket session).
+@Component
+public class NotificationPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPipeline.class);
+
+    // What to do when the queue is full
+    public enum OverflowPolicy {
+        DROP_NEWEST,  // reject the incoming event
+        DROP_OLDEST,  // evict the head of the queue to make room
+        COALESCE      // absorb the event if an identical (recipient, post, type) one is pending, else DROP_OLDEST
+    }
+
+    private final BlockingQueue<NotificationEvent> queue;
+    private final Map<String, Integer> pendingKeys = new ConcurrentHashMap<>();
+    private final NotificationCoalescer coalescer;
+    private final NotificationPushBatcher pushBatcher;
+    private final PresenceRegistry presenceRegistry;
+    private final EventStreamHub eventStreamHub;
+    private final OverflowPolicy overflowPolicy;
+    private final int maxBatch;
+
+    private final Counter enqueued;
+    private final Counter dropped;
+    private final Counter coalesced;
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+    private final Counter skippedOffline;
+    private final Counter failed;
+
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public NotificationPipeline(
+            NotificationCoalescer coalescer,
+            NotificationPushBatcher pushBatcher,
+            PresenceRegistry presenceRegistry,
+            EventStreamHub eventStreamHub,
+            MeterRegistry meterRegistry,
+            @Value("${notifications.queue.capacity:10000}") int capacity,
+            @Value("${notifications.queue.max-batch:200}") int maxBatch,
+            @Value("${notifications.queue.overflow-policy:COALESCE}") OverflowPolicy overflowPolicy
+    ) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.coalescer = coalescer;
+        this.pushBatcher = pushBatcher;
+        this.presenceRegistry = presenceRegistry;
+        this.eventStreamHub = eventStreamHub;
+        this.overflowPolicy = overflowPolicy;
+        this.maxBatch = maxBatch;
+
+        Gauge.builder("notifications.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("notifications.queue.remaining", queue, BlockingQueue::remainingCapacity).register(meterRegistry);
+        this.enqueued = meterRegistry.counter("notifications.enqueued");
+        this.dropped = meterRegistry.counter("notifications.dropped", "policy", overflowPolicy.name());
+        this.coalesced = meterRegistry.counter("notifications.coalesced");
+        this.batchSizes = DistributionSummary.builder("notifications.batch.size").register(meterRegistry);
+        this.flushTimer = Timer.builder("notifications.flush").register(meterRegistry);
+        this.skippedOffline = meterRegistry.counter("notifications.push.skipped", "reason", "offline");
+        this.failed = meterRegistry.counter("notifications.failed");
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = Thread.ofVirtual().name("notification-pipeline").start(this::drainLoop);
+    }
+
+    // Not interrupted: the worker finishes the batch it is flushing and sees the flag within one poll
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        // Whatever is still queued gets one last synchronous flush
+        List<NotificationEvent> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        if (!leftovers.isEmpty()) {
+            flush(leftovers);
+        }
+    }
+
+    // Enqueues after the surrounding transaction commits, or immediately when there is none
+    public void publish(NotificationEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(event);
+                }
+            });
+        } else {
+            offer(event);
+        }
+    }
+
+    private void offer(NotificationEvent event) {
+        if (tryOffer(event)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_NEWEST -> dropped.increment();
+            case DROP_OLDEST -> dropOldestAndOffer(event);
+            case COALESCE -> {
+                if (pendingKeys.containsKey(event.coalescingKey())) {
+                    coalesced.increment();
+                } else {
+                    dropOldestAndOffer(event);
+                }
+            }
+        }
+    }
+
+    private boolean tryOffer(NotificationEvent event) {
+        // Track before offering so the worker can never untrack a key that was not counted yet
+        pendingKeys.merge(event.coalescingKey(), 1, Integer::sum);
+        if (queue.offer(event)) {
+            enqueued.increment();
+            return true;
+        }
+        untrack(event);
+        return false;
+    }
+
+    private void dropOldestAndOffer(NotificationEvent event) {
+        NotificationEvent oldest = queue.poll();
+        if (oldest != null) {
+            untrack(oldest);
+            dropped.increment();
+        }
+        if (!tryOffer(event)) {
+            dropped.increment();
+        }
+    }
+
+    private void untrack(NotificationEvent event) {
+        pendingKeys.computeIfPresent(event.coalescingKey(), (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void drainLoop() {
+        List<NotificationEvent> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                NotificationEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Pushing notification batch of {} failed", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<NotificationEvent> batch) {
+        batch.forEach(this::untrack);
+        batchSizes.record(batch.size());
+
+        flushTimer.record(() -> applyOrSplit(batch));
+    }
+
+    // The upsert is one transaction, so a failed batch left nothing behind and is retried in halves:
+    // a bad event only costs itself, not the unrelated notifications it was batched with
+    private void applyOrSplit(List<NotificationEvent> batch) {
+        NotificationCoalescer.Result result;
+        try {
+            result = coalescer.apply(batch);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failed.increment();
+                log.error("Dropping notification {} after failure", batch.get(0).coalescingKey(), e);
+                return;
+            }
+            log.warn("Notification batch of {} failed, retrying in halves", batch.size(), e);
+            int half = batch.size() / 2;
+            applyOrSplit(batch.subList(0, half));
+            applyOrSplit(batch.subList(half, batch.size()));
+            return;
+        }
+        push(result);
+    }
+
+    private void push(NotificationCoalescer.Result result) {
+        // SSE listeners get the new unread count whether or not they also have a socket, including
+        // when a read row turned unread again
+        result.getUnreadChanged().forEach(eventStreamHub::unreadChanged);
+
+        // Push after the rows exist, walking each recipient's notifications together
+        Map<String, List<Notification>> byRecipient = new LinkedHashMap<>();
+        for (Notification notification : result.getTouched()) {
+            byRecipient.computeIfAbsent(notification.getRecipientId(), r -> new ArrayList<>()).add(notification);
+        }
+        byRecipient.forEach((recipientId, notifications) -> {
+            // Offline users read these from the persisted inbox when they next open it
+            if (!presenceRegistry.isOnline(recipientId)) {
+                skippedOffline.increment(notifications.size());
+                return;
+            }
+            pushBatcher.enqueue(recipientId, notifications.stream().map(this::convertToDto).toList());
+        });
+    }
+
+    private NotificationDto convertToDto(Notification notification) {
+        NotificationDto dto = new NotificationDto();
+        dto.setId(notification.getId());
+        dto.setPostId(notification.getPostId());
+        dto.setSenderId(notification.getSenderId());
+        dto.setMessage(notification.getMessage());
+        dto.setRead(notification.isRead());
+        dto.setTimestamp(notification.getTimestamp());
+        dto.setType(notification.getType());
+        dto.setActorCount(notification.getActorCount());
+        dto.setRecentActorIds(notification.getRecentActors() == null || notification.getRecentActors().isEmpty()
+                ? List.of()
+                : List.of(notification.getRecentActors().split(",")));
+        return dto;
+    }
+}
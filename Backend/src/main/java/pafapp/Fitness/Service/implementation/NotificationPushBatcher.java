@@ -0,0 +1,216 @@
+package pafapp.Fitness.Service.implementation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import pafapp.Fitness.Dto.NotificationDto;
+
+// Per-user outbound micro-batcher, behind a per-notification debounce. A coalesced row (one per
+// recipient, post, type and window) is pushed at most once per notifications.push.debounce: its first
+// update opens the interval, later ones replace the pending copy, and the latest aggregate goes out when
+// the interval ends. Notifications for one recipient are then held for up to notifications.push.window
+// (or until max-items pile up) and go out as a single STOMP frame whose payload is a JSON array, holding
+// each notification id once, so a burst of likes costs one frame per session instead of one per like.
+// notifications.push.delay shows what the debounce and window add on top of the pipeline's own latency.
+@Component
+public class NotificationPushBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPushBatcher.class);
+
+    public static final String NOTIFICATIONS_DESTINATION = "/queue/notifications";
+
+    private final Map<String, Debounced> debouncing = new ConcurrentHashMap<>();
+    private final Map<String, PendingBatch> pending = new ConcurrentHashMap<>();
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceRegistry presenceRegistry;
+    private final long debounceNanos;
+    private final long windowNanos;
+    private final int maxItems;
+    private final ScheduledExecutorService scheduler;
+
+    private final Counter pushed;
+    private final Counter frames;
+    private final Counter failed;
+    private final DistributionSummary frameSizes;
+    private final DistributionSummary fanOut;
+    private final Timer delay;
+
+    public NotificationPushBatcher(
+            SimpMessagingTemplate messagingTemplate,
+            PresenceRegistry presenceRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${notifications.push.debounce:PT2S}") Duration debounce,
+            @Value("${notifications.push.window:PT0.05S}") Duration window,
+            @Value("${notifications.push.max-items:50}") int maxItems
+    ) {
+        this.messagingTemplate = messagingTemplate;
+        this.presenceRegistry = presenceRegistry;
+        this.debounceNanos = debounce.toNanos();
+        this.windowNanos = window.toNanos();
+        this.maxItems = Math.max(1, maxItems);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("notification-push").daemon().factory());
+
+        Gauge.builder("notifications.push.pending.users", pending, Map::size).register(meterRegistry);
+        Gauge.builder("notifications.push.debouncing", debouncing, Map::size).register(meterRegistry);
+        this.pushed = meterRegistry.counter("notifications.pushed");
+        this.frames = meterRegistry.counter("notifications.push.frames");
+        this.failed = meterRegistry.counter("notifications.push.failed");
+        this.frameSizes = DistributionSummary.builder("notifications.push.frame.size")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        // Sessions on this node reached by one push to the notifications user destination
+        this.fanOut = DistributionSummary.builder("websocket.fanout")
+                .tag("destination", "/user" + NOTIFICATIONS_DESTINATION)
+                .register(meterRegistry);
+        // Time each notification spent waiting in its user's batch
+        this.delay = Timer.builder("notifications.push.delay")
+                .publishPercentiles(0.5, 0.95, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void enqueue(String recipientId, List<NotificationDto> notifications) {
+        long now = System.nanoTime();
+        if (debounceNanos <= 0) {
+            Map<String, Long> enqueuedAt = new LinkedHashMap<>();
+            notifications.forEach(n -> enqueuedAt.put(n.getId(), now));
+            batch(recipientId, notifications, enqueuedAt);
+            return;
+        }
+        for (NotificationDto notification : notifications) {
+            boolean[] opened = new boolean[1];
+            debouncing.compute(notification.getId(), (id, current) -> {
+                if (current == null) {
+                    opened[0] = true;
+                    return new Debounced(recipientId, notification, now);
+                }
+                current.latest = notification;
+                return current;
+            });
+            if (opened[0]) {
+                // Only the first update of an interval arms its timer
+                scheduler.schedule(() -> release(notification.getId()), debounceNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    // End of a debounce interval: the latest copy moves on to its recipient's batch
+    private void release(String notificationId) {
+        Debounced debounced = debouncing.remove(notificationId);
+        if (debounced != null) {
+            batch(debounced.recipientId, List.of(debounced.latest), Map.of(notificationId, debounced.firstAt));
+        }
+    }
+
+    private void batch(String recipientId, List<NotificationDto> notifications, Map<String, Long> enqueuedAt) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        if (windowNanos <= 0) {
+            send(recipientId, notifications, enqueuedAt.values());
+            return;
+        }
+
+        PendingBatch[] opened = new PendingBatch[1];
+        int[] size = new int[1];
+        PendingBatch batch = pending.compute(recipientId, (id, current) -> {
+            if (current == null) {
+                current = new PendingBatch();
+                opened[0] = current;
+            }
+            for (NotificationDto notification : notifications) {
+                // A later copy of the same notification replaces the earlier one in place
+                current.items.put(notification.getId(), notification);
+                current.enqueuedAt.putIfAbsent(notification.getId(), enqueuedAt.get(notification.getId()));
+            }
+            size[0] = current.items.size();
+            return current;
+        });
+        if (size[0] >= maxItems) {
+            flush(recipientId, batch);
+        } else if (opened[0] != null) {
+            // Only the call that opens a batch arms its timer
+            PendingBatch armed = opened[0];
+            scheduler.schedule(() -> flush(recipientId, armed), windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Removing by identity makes each batch go out exactly once, whether the timer or max-items wins;
+    // a stale timer finds its batch already gone and does nothing
+    private void flush(String recipientId, PendingBatch batch) {
+        if (pending.remove(recipientId, batch)) {
+            send(recipientId, new ArrayList<>(batch.items.values()), batch.enqueuedAt.values());
+        }
+    }
+
+    private void send(String recipientId, List<NotificationDto> items, Collection<Long> enqueuedAt) {
+        try {
+            messagingTemplate.convertAndSendToUser(recipientId, NOTIFICATIONS_DESTINATION, items);
+        } catch (RuntimeException e) {
+            failed.increment(items.size());
+            log.warn("Could not push {} notifications to user {}", items.size(), recipientId, e);
+            return;
+        }
+        long sentAt = System.nanoTime();
+        for (long at : enqueuedAt) {
+            delay.record(sentAt - at, TimeUnit.NANOSECONDS);
+        }
+        pushed.increment(items.size());
+        frames.increment();
+        frameSizes.record(items.size());
+        fanOut.record(presenceRegistry.localSessionCount(recipientId));
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        // Open batches and debounced copies go out now rather than being lost with their timers
+        pending.forEach(this::flush);
+        debouncing.forEach((id, debounced) -> {
+            if (debouncing.remove(id, debounced)) {
+                send(debounced.recipientId, List.of(debounced.latest), List.of(debounced.firstAt));
+            }
+        });
+    }
+
+    // Latest copy of one notification inside its debounce interval; mutated only inside debouncing.compute
+    private static final class Debounced {
+        private final String recipientId;
+        private final long firstAt;
+        private volatile NotificationDto latest;
+
+        private Debounced(String recipientId, NotificationDto latest, long firstAt) {
+            this.recipientId = recipientId;
+            this.latest = latest;
+            this.firstAt = firstAt;
+        }
+    }
+
+    // Mutated only inside pending.compute, read only after it has been removed from the map.
+    // Keyed by notification id, so a frame carries each notification once
+    private static final class PendingBatch {
+        private final Map<String, NotificationDto> items = new LinkedHashMap<>();
+        private final Map<String, Long> enqueuedAt = new LinkedHashMap<>();
+    }
+}
@@ -3,100 +3,140 @@ package pafapp.Fitness.Service.implementation;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import java.time.LocalDateTime;
+import org.springframework.transaction.annotation.Transactional;
 
-import org.springframework.messaging.simp.SimpMessagingTemplate; // Added for WebSocket messaging
+import java.time.LocalDateTime;
 
 import pafapp.Fitness.Model.Notification;
-import pafapp.Fitness.Model.Post;
-import pafapp.Fitness.Dto.NotificationDto; // Added for sending DTO via WebSocket
+import pafapp.Fitness.Model.NotificationCounter;
+import pafapp.Fitness.Model.NotificationType;
+import pafapp.Fitness.Dto.CursorPageDto;
+import pafapp.Fitness.Dto.KeysetCursor;
+import pafapp.Fitness.Dto.NotificationEvent;
 import pafapp.Fitness.Service.NotificationService;
+import pafapp.Fitness.repository.NotificationCounterRepository;
 import pafapp.Fitness.repository.NotificationRepository;
-import pafapp.Fitness.repository.PostRepository;
 
 @Service
 public class NotificationServiceImpl implements NotificationService {
 
+    private static final int MAX_INBOX_LIMIT = 100;
+    // Keeps "commented on your post: "..."" within the 255-character message column
+    private static final int MAX_COMMENT_SNIPPET = 200;
+
     @Autowired
     private NotificationRepository notificationRepo;
 
     @Autowired
-    private PostRepository postRepo;
+    private NotificationCounterRepository counterRepo;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate; // Inject SimpMessagingTemplate for WebSocket
-
-    // Utility method to convert Notification entity to NotificationDto
-    private NotificationDto convertToDto(Notification notification) {
-        NotificationDto dto = new NotificationDto();
-        dto.setId(notification.getId());
-        dto.setPostId(notification.getPostId());
-        dto.setSenderId(notification.getSenderId());
-        dto.setMessage(notification.getMessage());
-        dto.setRead(notification.isRead()); // Changed to setRead to match NotificationDto field
-        dto.setTimestamp(notification.getTimestamp());
-        // senderName can be set if needed by fetching user info, omitted here for brevity
-        return dto;
+    private NotificationPipeline notificationPipeline;
+
+    @Autowired
+    private EventStreamHub eventStreamHub;
+
+    @Override
+    public void sendLikeNotification(String senderId, String recipientId, String postId) {
+        if (recipientId == null || recipientId.equals(senderId)) return; // no self-notify
+
+        notificationPipeline.publish(new NotificationEvent(
+                NotificationType.LIKE, recipientId, senderId, postId,
+                "liked your post.", LocalDateTime.now()));
     }
 
     @Override
-    public void sendLikeNotification(String senderId, String postId) {
-        Post post = postRepo.findById(Long.parseLong(postId)).orElse(null);
-        if (post == null || post.getUserId().equals(senderId)) return; // no self-notify
-
-        Notification notification = new Notification();
-        notification.setRecipientId(post.getUserId());
-        notification.setSenderId(senderId);
-        notification.setPostId(postId);
-        notification.setMessage("liked your post.");
-        notification.setTimestamp(LocalDateTime.now());
-
-        notificationRepo.save(notification);
-
-        // Send notification via WebSocket to recipient
-        NotificationDto dto = convertToDto(notification);
-        messagingTemplate.convertAndSend("/topic/notifications/" + post.getUserId(), dto); // WebSocket message sent
+    public void sendCommentNotification(String senderId, String recipientId, String postId, String commentText) {
+        if (recipientId == null || recipientId.equals(senderId)) return;
+
+        notificationPipeline.publish(new NotificationEvent(
+                NotificationType.COMMENT, recipientId, senderId, postId,
+                "commented on your post: \"" + snippet(commentText) + "\"", LocalDateTime.now()));
+    }
+
+    private static String snippet(String text) {
+        if (text == null || text.codePointCount(0, text.length()) <= MAX_COMMENT_SNIPPET) {
+            return text;
+        }
+        return text.substring(0, text.offsetByCodePoints(0, MAX_COMMENT_SNIPPET - 1)) + "…";
     }
 
     @Override
-    public void sendCommentNotification(String senderId, String postId, String commentText) {
-        Post post = postRepo.findById(Long.parseLong(postId)).orElse(null);
-        if (post == null || post.getUserId().equals(senderId)) return;
-
-        Notification notification = new Notification();
-        notification.setRecipientId(post.getUserId());
-        notification.setSenderId(senderId);
-        notification.setPostId(postId);
-        notification.setMessage("commented on your post: \"" + commentText + "\"");
-        notification.setTimestamp(LocalDateTime.now());
-
-        notificationRepo.save(notification);
-
-        // Send notification via WebSocket to recipient
-        NotificationDto dto = convertToDto(notification);
-        messagingTemplate.convertAndSendToUser(
-                post.getUserId(), "/queue/notifications", dto   
-            );       // WebSocket message sent
+    @Transactional(readOnly = true)
+    public CursorPageDto<Notification> getNotificationsForUser(String userId, String before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_INBOX_LIMIT));
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+
+        List<Notification> notifications;
+        if (before == null || before.isBlank()) {
+            notifications = notificationRepo.findInboxFirstPage(userId, page);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(before);
+            notifications = notificationRepo.findInboxPageBefore(userId, cursor.getTimestamp(), cursor.getId(), page);
+        }
+
+        String nextCursor = null;
+        if (notifications.size() > pageSize) {
+            notifications = notifications.subList(0, pageSize);
+            Notification last = notifications.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new CursorPageDto<>(notifications, nextCursor);
     }
 
     @Override
-    public List<Notification> getNotificationsForUser(String userId) {
-        return notificationRepo.findByRecipientIdOrderByTimestampDesc(userId);
+    public int getUnreadCount(String userId) {
+        return counterRepo.findById(userId).map(NotificationCounter::getUnread).orElse(0);
     }
 
     @Override
+    @Transactional
     public void markAsRead(String notificationId) {
-        Notification notification = notificationRepo.findById(notificationId).orElse(null);
-        if (notification != null) {
-            notification.setRead(true);
-            notificationRepo.save(notification);
+        String recipientId = notificationRepo.findRecipientIdById(notificationId);
+        if (recipientId != null) {
+            markRead(recipientId, List.of(notificationId));
+        }
+    }
+
+    @Override
+    @Transactional
+    public int markAllRead(String userId) {
+        int changed = notificationRepo.markAllRead(userId);
+        if (changed > 0) {
+            counterRepo.adjustUnread(userId, -changed);
+            eventStreamHub.unreadChanged(userId);
+        }
+        return changed;
+    }
+
+    @Override
+    @Transactional
+    public int markRead(String userId, List<String> notificationIds) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return 0;
+        }
+        int changed = notificationRepo.markRead(userId, notificationIds);
+        if (changed > 0) {
+            counterRepo.adjustUnread(userId, -changed);
+            eventStreamHub.unreadChanged(userId);
         }
+        return changed;
     }
 
     @Override
+    @Transactional
     public void deleteNotification(String notificationId) {
-        notificationRepo.deleteById(notificationId);
+        Notification notification = notificationRepo.findById(notificationId).orElse(null);
+        if (notification == null) {
+            return;
+        }
+        notificationRepo.delete(notification);
+        if (!notification.isRead()) {
+            counterRepo.adjustUnread(notification.getRecipientId(), -1);
+            eventStreamHub.unreadChanged(notification.getRecipientId());
+        }
     }
     
 }
@@ -4,13 +4,19 @@ import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 import pafapp.Fitness.Model.Comment;
 import pafapp.Fitness.Model.Post;
+import pafapp.Fitness.Dto.CommentResDto;
+import pafapp.Fitness.cache.UserSummary;
+import pafapp.Fitness.cache.UserSummaryCache;
 import pafapp.Fitness.Service.PostCommentService;
 import pafapp.Fitness.repository.CommentRepository;
 import pafapp.Fitness.repository.PostRepository;
 import pafapp.Fitness.Service.NotificationService;
+import pafapp.Fitness.Service.SearchService;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
@@ -19,14 +25,20 @@ public class PostCommentServiceImpl implements PostCommentService {
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final NotificationService notificationService;
+    private final UserSummaryCache userSummaryCache;
+    private final OptimisticRetry optimisticRetry;
+    private final SearchService searchService;
 
     @Override
-    public List<Comment> getCommentsForPost(Long postId) {
-        return commentRepository.findByPostId(postId);
+    public List<CommentResDto> getCommentsForPost(Long postId) {
+        List<Comment> comments = commentRepository.findByPostId(postId);
+        Map<String, UserSummary> authors = userSummaryCache.getAll(
+                comments.stream().map(Comment::getCommentById).collect(Collectors.toSet()));
+        return comments.stream().map(comment -> AuthorViews.toCommentDto(comment, authors)).toList();
     }
 
     @Override
-    public Comment addCommentToPost(Long postId, String content, String commentBy, String commentById, String commentByProfile) {
+    public CommentResDto addCommentToPost(Long postId, String content, String commentBy, String commentById) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found with id: " + postId));
 
@@ -34,21 +46,22 @@ public class PostCommentServiceImpl implements PostCommentService {
         comment.setContent(content);
         comment.setCommentBy(commentBy);
         comment.setCommentById(commentById);
-        comment.setCommentByProfile(commentByProfile != null ? commentByProfile : "");
+        // The avatar is resolved at read time through UserSummaryCache; the name stays as a fallback
+        comment.setCommentByProfile(null);
         comment.setCreatedAt(new Date());
         comment.setPost(post);
+        Comment saved = commentRepository.save(comment);
+        searchService.indexComment(saved);
 
-        // ✅ Notify only if the commenter is NOT the post owner
-        if (post.getUserId() != null && !post.getUserId().equals(commentById)) {
-            System.out.println("✅ Sending notification to post owner: " + post.getUserId());
-            notificationService.sendCommentNotification(
-                    post.getUserId(), // ✅ Correct: notify post owner
-                    postId.toString(),
-                    content
-            );
-        }
+        // ✅ Notify the post owner (skipped for self-comments); the post is already loaded, so no re-fetch
+        notificationService.sendCommentNotification(
+                commentById,
+                post.getUserId(),
+                postId.toString(),
+                content
+        );
 
-        return commentRepository.save(comment);
+        return toDto(saved);
     }
 
     @Override
@@ -60,14 +73,24 @@ public class PostCommentServiceImpl implements PostCommentService {
             throw new RuntimeException("Comment does not belong to the specified post");
         }
         commentRepository.delete(comment);
+        searchService.removeComment(commentId);
     }
 
     @Override
-    public Comment editComment(Long commentId, String content) {
-        Comment comment = commentRepository.findById(commentId)
-                .orElseThrow(() -> new RuntimeException("Comment not found with id: " + commentId));
+    public CommentResDto editComment(Long commentId, String content) {
+        Comment saved = optimisticRetry.execute(() -> {
+            Comment comment = commentRepository.findById(commentId)
+                    .orElseThrow(() -> new RuntimeException("Comment not found with id: " + commentId));
+            comment.setContent(content);
+            return commentRepository.save(comment);
+        });
+        searchService.indexComment(saved);
+        return toDto(saved);
+    }
 
-        comment.setContent(content);
-        return commentRepository.save(comment);
+    private CommentResDto toDto(Comment comment) {
+        String authorId = comment.getCommentById();
+        Map<String, UserSummary> authors = authorId == null ? Map.of() : userSummaryCache.getAll(List.of(authorId));
+        return AuthorViews.toCommentDto(comment, authors);
     }
 }
@@ -1,15 +1,36 @@
 package pafapp.Fitness.Service.implementation;
 
 import lombok.AllArgsConstructor;
+import pafapp.Fitness.Dto.CommentResDto;
+import pafapp.Fitness.Dto.CursorPageDto;
+import pafapp.Fitness.Dto.FeedPostDto;
+import pafapp.Fitness.Dto.KeysetCursor;
+import pafapp.Fitness.Dto.LikeToggleDto;
+import pafapp.Fitness.Dto.PostDetailDto;
 import pafapp.Fitness.Dto.PostDto;
+import pafapp.Fitness.Model.Comment;
 import pafapp.Fitness.Model.Post;
-import pafapp.Fitness.Service.PostCommentService;
+import pafapp.Fitness.Service.MediaStoreService;
+import pafapp.Fitness.cache.PostCounterBuffer;
+import pafapp.Fitness.cache.PostCounterBuffer.Counter;
+import pafapp.Fitness.cache.UserSummary;
+import pafapp.Fitness.cache.UserSummaryCache;
+import pafapp.Fitness.Service.NotificationService;
+import pafapp.Fitness.Service.TimelineService;
+import pafapp.Fitness.repository.CommentRepository;
+import pafapp.Fitness.repository.PostCardView;
+import pafapp.Fitness.repository.PostLikeRepository;
 import pafapp.Fitness.repository.PostRepository;
+import pafapp.Fitness.repository.UserStatsRepository;
 import pafapp.Fitness.Service.PostService;
+import pafapp.Fitness.Service.SearchService;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -18,25 +39,186 @@ import java.util.*;
 @AllArgsConstructor
 public class PostServiceImpl implements PostService {
 
+    private static final int MAX_FEED_LIMIT = 50;
+    private static final int COMMENTS_PER_CARD = 3;
+
     private final PostRepository postRepository;
-    private final PostCommentService commentService;
+    private final CommentRepository commentRepository;
+    private final MediaStoreService mediaStoreService;
+    private final PostLikeRepository postLikeRepository;
+    private final TimelineService timelineService;
+    private final NotificationService notificationService;
+    private final UserSummaryCache userSummaryCache;
+    private final UserStatsRepository userStatsRepository;
+    private final PostCounterBuffer postCounterBuffer;
+    private final OptimisticRetry optimisticRetry;
+    private final SearchService searchService;
+    private final EventStreamHub eventStreamHub;
 
     @Override
-    public List<Post> getAllPosts() {
-        List<Post> posts = postRepository.findAll();
-        for (Post post : posts) {
-            post.setComments(commentService.getCommentsForPost(post.getId()));
+    @Transactional(readOnly = true)
+    public CursorPageDto<FeedPostDto> getFeed(String before, int limit, String viewerId) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_LIMIT));
+        // Fetch one extra row to know whether another page exists
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+
+        List<PostCardView> posts;
+        if (before == null || before.isBlank()) {
+            posts = postRepository.findFeedCardsFirstPage(page);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(before);
+            posts = postRepository.findFeedCardsBefore(cursor.getTimestamp(), cursor.idAsLong(), page);
         }
-        posts.sort(Comparator.comparing(Post::getDate).reversed());
-        return posts;
+
+        boolean hasMore = posts.size() > pageSize;
+        if (hasMore) {
+            posts = posts.subList(0, pageSize);
+        }
+        return toFeedPage(posts, hasMore, viewerId);
     }
 
     @Override
-    public Optional<Post> getPostById(Long id) {
-        return postRepository.findById(id);
+    @Transactional(readOnly = true)
+    public CursorPageDto<FeedPostDto> getHomeTimeline(String userId, String before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_LIMIT));
+        Long beforeId = before == null || before.isBlank() ? null : KeysetCursor.decode(before).idAsLong();
+
+        List<Long> ids = timelineService.readTimeline(userId, beforeId, pageSize + 1);
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+
+        // One batched lookup, then restore timeline order (deleted posts simply drop out)
+        Map<Long, PostCardView> byId = new HashMap<>();
+        for (PostCardView post : postRepository.findCardsByIds(ids)) {
+            byId.put(post.getId(), post);
+        }
+        List<PostCardView> posts = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            PostCardView post = byId.get(id);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+        return toFeedPage(posts, hasMore, userId);
+    }
+
+    // Shared card assembly for the global feed and home timelines
+    private CursorPageDto<FeedPostDto> toFeedPage(List<PostCardView> posts, boolean hasMore, String viewerId) {
+        if (posts.isEmpty()) {
+            return new CursorPageDto<>(new ArrayList<>(), null);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            PostCardView last = posts.get(posts.size() - 1);
+            nextCursor = new KeysetCursor(last.getDate(), last.getId().toString()).encode();
+        }
+        return new CursorPageDto<>(toFeedDtos(posts, viewerId), nextCursor);
+    }
+
+    private List<FeedPostDto> toFeedDtos(List<PostCardView> posts, String viewerId) {
+        if (posts.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> postIds = posts.stream().map(PostCardView::getId).toList();
+
+        // A fixed number of batched queries for the whole page instead of several per post
+        Map<Long, List<String>> images = new HashMap<>();
+        for (Object[] row : postRepository.findImagesByPostIds(postIds)) {
+            images.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        Map<Long, Long> commentCounts = new HashMap<>();
+        for (Object[] row : commentRepository.countByPostIds(postIds)) {
+            commentCounts.put((Long) row[0], (Long) row[1]);
+        }
+        List<Comment> comments = commentRepository.findRecentByPostIds(postIds, COMMENTS_PER_CARD);
+
+        // Post and comment authors of the whole page resolved together, misses in one query
+        Set<String> authorIds = new HashSet<>();
+        posts.forEach(post -> authorIds.add(post.getUserId()));
+        comments.forEach(comment -> authorIds.add(comment.getCommentById()));
+        Map<String, UserSummary> authors = userSummaryCache.getAll(authorIds);
+
+        Map<Long, List<CommentResDto>> recentComments = new HashMap<>();
+        for (Comment comment : comments) {
+            recentComments.computeIfAbsent(comment.getPost().getId(), id -> new ArrayList<>())
+                    .add(AuthorViews.toCommentDto(comment, authors));
+        }
+        Set<Long> likedByViewer = viewerId == null || viewerId.isBlank()
+                ? Set.of()
+                : new HashSet<>(postLikeRepository.findLikedPostIds(viewerId, postIds));
+
+        List<FeedPostDto> items = new ArrayList<>(posts.size());
+        for (PostCardView post : posts) {
+            items.add(toFeedDto(post,
+                    images.getOrDefault(post.getId(), new ArrayList<>()),
+                    commentCounts.getOrDefault(post.getId(), 0L),
+                    recentComments.getOrDefault(post.getId(), new ArrayList<>()),
+                    authors.get(post.getUserId()),
+                    likedByViewer.contains(post.getId())));
+        }
+        return items;
+    }
+
+    private FeedPostDto toFeedDto(PostCardView post, List<String> images, long commentsCount,
+            List<CommentResDto> recentComments, UserSummary author, boolean likedByViewer) {
+        FeedPostDto dto = new FeedPostDto();
+        dto.setId(post.getId());
+        dto.setTitle(post.getTitle());
+        dto.setDate(post.getDate());
+        dto.setImages(images);
+        dto.setVideo(post.getVideo());
+        dto.setDescription(post.getDescription());
+        dto.setLikeCount(post.getLikeCount() + (int) postCounterBuffer.pending(Counter.LIKES, post.getId()));
+        dto.setViewCount(post.getViewCount() + postCounterBuffer.pending(Counter.VIEWS, post.getId()));
+        dto.setCommentsCount(commentsCount);
+        dto.setUserId(post.getUserId());
+        dto.setUsername(AuthorViews.name(author, post.getUsername()));
+        dto.setUserProfile(AuthorViews.profileImage(author, post.getUserProfile()));
+        dto.setRecentComments(recentComments);
+        dto.setLikedByViewer(likedByViewer);
+        return dto;
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Optional<PostDetailDto> getPostDetail(Long id, String viewerId) {
+        return postRepository.findCardById(id).map(post -> {
+            List<Comment> comments = commentRepository.findByPostIdOrderByCreatedAtAsc(id);
+            Set<String> authorIds = new HashSet<>();
+            authorIds.add(post.getUserId());
+            comments.forEach(comment -> authorIds.add(comment.getCommentById()));
+            Map<String, UserSummary> authors = userSummaryCache.getAll(authorIds);
+            boolean liked = viewerId != null && !viewerId.isBlank()
+                    && !postLikeRepository.findLikedPostIds(viewerId, List.of(id)).isEmpty();
+
+            PostDetailDto dto = new PostDetailDto();
+            dto.setId(post.getId());
+            dto.setTitle(post.getTitle());
+            dto.setDate(post.getDate());
+            dto.setImages(new ArrayList<>(postRepository.findImagesByPostIds(List.of(id)).stream()
+                    .map(row -> (String) row[1]).toList()));
+            dto.setVideo(post.getVideo());
+            dto.setDescription(post.getDescription());
+            dto.setLikeCount(post.getLikeCount() + (int) postCounterBuffer.pending(Counter.LIKES, id));
+            // Counts this view too; it reaches view_count with the next flush
+            dto.setViewCount(post.getViewCount() + postCounterBuffer.pending(Counter.VIEWS, id) + 1);
+            dto.setLikedByViewer(liked);
+            dto.setCommentsCount(comments.size());
+            dto.setUserId(post.getUserId());
+            dto.setUsername(AuthorViews.name(authors.get(post.getUserId()), post.getUsername()));
+            dto.setUserProfile(AuthorViews.profileImage(authors.get(post.getUserId()), post.getUserProfile()));
+            dto.setSharedBy(postRepository.findSharedByById(id));
+            dto.setComments(comments.stream().map(comment -> AuthorViews.toCommentDto(comment, authors)).toList());
+            postCounterBuffer.increment(Counter.VIEWS, id, 1);
+            return dto;
+        });
+    }
+
+    @Override
+    @Transactional
     public Post createPost(PostDto dto) {
         // 🔒 Validate: only one media type allowed
         boolean hasImages = dto.getImages() != null && !dto.getImages().isEmpty();
@@ -53,13 +235,13 @@ public class PostServiceImpl implements PostService {
         Post post = new Post();
         post.setUserId(dto.getUserId());
         post.setUsername(dto.getUsername());
-        post.setUserProfile(dto.getUserProfile());
+        // Avatars are resolved at read time through UserSummaryCache; the name stays as a fallback
+        post.setUserProfile(null);
         post.setTitle(dto.getTitle());
         post.setDescription(dto.getDescription());
         post.setDate(LocalDateTime.now());
         post.setLikeCount(0);
         post.setCommentsCount(0);
-        post.setLikedBy(new ArrayList<>());
         post.setSharedBy(new ArrayList<>());
 
         if (hasImages) {
@@ -67,46 +249,49 @@ public class PostServiceImpl implements PostService {
             post.setVideo(null);
         } else {
             post.setImages(new ArrayList<>());
-            post.setVideo(dto.getVideo());
+            post.setVideo(mediaStoreService.toReference(dto.getVideo()));
         }
 
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        userStatsRepository.adjustPostCount(saved.getUserId(), 1);
+        timelineService.fanOut(saved);
+        searchService.indexPost(saved);
+        eventStreamHub.postCreated(saved.getId());
+        return saved;
     }
 
     @Override
     public ResponseEntity<Post> editPost(PostDto postDTO) {
-        Post post = postRepository.findById(postDTO.getId())
-                .orElseThrow(() -> new RuntimeException("Post not found with id: " + postDTO.getId()));
-
-        try {
-            post.setTitle(postDTO.getTitle());
-            post.setDescription(postDTO.getDescription());
-            post.setDate(LocalDateTime.now());
+        // Only allow one media type in updates too
+        boolean hasImages = postDTO.getImages() != null && !postDTO.getImages().isEmpty();
+        boolean hasVideo = postDTO.getVideo() != null && !postDTO.getVideo().trim().isEmpty();
 
-            // Only allow one media type in updates too
-            boolean hasImages = postDTO.getImages() != null && !postDTO.getImages().isEmpty();
-            boolean hasVideo = postDTO.getVideo() != null && !postDTO.getVideo().trim().isEmpty();
-
-            if (hasImages && hasVideo) {
-                throw new IllegalArgumentException("Only one media type (image or video) is allowed.");
-            }
-
-            if (!hasImages && !hasVideo) {
-                throw new IllegalArgumentException("You must provide at least one media type.");
-            }
-
-            if (hasImages) {
-                post.setImages(postDTO.getImages());
-                post.setVideo(null);
-            } else {
-                post.setImages(new ArrayList<>());
-                post.setVideo(postDTO.getVideo());
-            }
+        if (hasImages == hasVideo) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
 
-            postRepository.save(post);
+        try {
+            String video = hasVideo ? mediaStoreService.toReference(postDTO.getVideo()) : null;
+            // Re-read and re-apply on a version conflict instead of overwriting a concurrent edit
+            Post post = optimisticRetry.execute(() -> {
+                Post current = postRepository.findById(postDTO.getId())
+                        .orElseThrow(() -> new NoSuchElementException("Post not found with id: " + postDTO.getId()));
+                current.setTitle(postDTO.getTitle());
+                current.setDescription(postDTO.getDescription());
+                current.setDate(LocalDateTime.now());
+                current.setImages(hasImages ? new ArrayList<>(postDTO.getImages()) : new ArrayList<>());
+                current.setVideo(video);
+                return postRepository.save(current);
+            });
+            searchService.indexPost(post);
             return new ResponseEntity<>(post, HttpStatus.OK);
 
+        } catch (NoSuchElementException e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
         } catch (IllegalArgumentException e) {
+            // Malformed or oversized inline video
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -114,44 +299,60 @@ public class PostServiceImpl implements PostService {
     }
 
     @Override
+    @Transactional
     public void deletePost(Long id) {
+        String authorId = postRepository.findUserIdById(id);
+        postLikeRepository.deleteByPostId(id);
         postRepository.deleteById(id);
+        searchService.removePost(id);
+        if (authorId != null) {
+            userStatsRepository.adjustPostCount(authorId, -1);
+        }
     }
 
     @Override
+    @Transactional
     public ResponseEntity<Object> likePost(String postIdStr, String userId) {
+        Long postId;
         try {
-            Long postId = Long.parseLong(postIdStr);
-            Post post = postRepository.findById(postId)
-                    .orElseThrow(() -> new RuntimeException("Post not found with id: " + postId));
+            postId = Long.parseLong(postIdStr);
+        } catch (NumberFormatException e) {
+            return new ResponseEntity<>("Invalid post id: " + postIdStr, HttpStatus.BAD_REQUEST);
+        }
 
-            if (post.getLikedBy() == null) {
-                post.setLikedBy(new ArrayList<>());
-            }
+        String authorId = postRepository.findUserIdById(postId);
+        if (authorId == null) {
+            return new ResponseEntity<>("Post not found with id: " + postId, HttpStatus.NOT_FOUND);
+        }
 
-            if (post.getLikedBy().contains(userId)) {
-                post.removeLikedBy(userId);
-                post.setLikeCount(post.getLikeCount() - 1);
-            } else {
-                post.addLikedBy(userId);
-                post.setLikeCount(post.getLikeCount() + 1);
+        // Toggle with single-row statements on post_likes; the like_count change goes through the
+        // write-behind buffer so concurrent likers never contend on the posts row
+        boolean liked;
+        int delta = 0;
+        if (postLikeRepository.deleteByPostIdAndUserId(postId, userId) > 0) {
+            delta = -1;
+            liked = false;
+        } else {
+            // 0 means a concurrent request from the same user won the insert
+            if (postLikeRepository.insertIfAbsent(postId, userId) > 0) {
+                delta = 1;
+                notificationService.sendLikeNotification(userId, authorId, postId.toString());
             }
-
-            postRepository.save(post);
-            return new ResponseEntity<>(post, HttpStatus.OK);
-
-        } catch (RuntimeException e) {
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+            liked = true;
         }
+        if (delta != 0) {
+            postCounterBuffer.increment(Counter.LIKES, postId, delta);
+        }
+
+        // The delta is only buffered after commit, so count it here for the caller
+        Integer stored = postRepository.findLikeCountById(postId);
+        long likeCount = (stored != null ? stored : 0) + postCounterBuffer.pending(Counter.LIKES, postId) + delta;
+        return new ResponseEntity<>(new LikeToggleDto(postId, liked, (int) Math.max(likeCount, 0)), HttpStatus.OK);
     }
 
     @Override
-    public List<Post> getPostsByUserId(String userId) {
-        List<Post> posts = postRepository.findByUserId(userId);
-        for (Post post : posts) {
-            post.setComments(commentService.getCommentsForPost(post.getId()));
-        }
-        posts.sort(Comparator.comparing(Post::getDate).reversed());
-        return posts;
+    @Transactional(readOnly = true)
+    public List<FeedPostDto> getPostsByUserId(String userId, String viewerId) {
+        return toFeedDtos(postRepository.findCardsByUserId(userId), viewerId);
     }
 }
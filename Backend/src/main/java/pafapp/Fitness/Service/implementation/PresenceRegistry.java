@@ -0,0 +1,71 @@
+package pafapp.Fitness.Service.implementation;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Who is connected to /ws on this node: userId -> STOMP session ids, kept from connect/disconnect events.
+// isOnline() also consults the SimpUserRegistry, which in broker relay mode includes users connected to
+// other nodes, so the notification pipeline only pushes to users with a live session somewhere.
+@Component
+public class PresenceRegistry {
+
+    private final Map<String, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+    private final Map<String, String> userBySession = new ConcurrentHashMap<>();
+    private final SimpUserRegistry simpUserRegistry;
+
+    public PresenceRegistry(SimpUserRegistry simpUserRegistry, MeterRegistry meterRegistry) {
+        this.simpUserRegistry = simpUserRegistry;
+        Gauge.builder("websocket.sessions.active", userBySession, Map::size).register(meterRegistry);
+        Gauge.builder("websocket.users.online", sessionsByUser, Map::size).register(meterRegistry);
+    }
+
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        Principal user = event.getUser();
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (user == null || sessionId == null) {
+            return; // anonymous sockets cannot receive user destinations anyway
+        }
+        userBySession.put(sessionId, user.getName());
+        // Inside compute, so a concurrent last-session disconnect cannot drop the set under us
+        sessionsByUser.compute(user.getName(), (id, sessions) -> {
+            Set<String> updated = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+            updated.add(sessionId);
+            return updated;
+        });
+    }
+
+    // Can be published more than once per session; the second time finds nothing to remove
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String userId = userBySession.remove(event.getSessionId());
+        if (userId == null) {
+            return;
+        }
+        sessionsByUser.computeIfPresent(userId, (id, sessions) -> {
+            sessions.remove(event.getSessionId());
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    public int localSessionCount(String userId) {
+        Set<String> sessions = sessionsByUser.get(userId);
+        return sessions != null ? sessions.size() : 0;
+    }
+
+    public boolean isOnline(String userId) {
+        return localSessionCount(userId) > 0 || simpUserRegistry.getUser(userId) != null;
+    }
+}
@@ -0,0 +1,232 @@
+package pafapp.Fitness.Service.implementation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.AllArgsConstructor;
+import pafapp.Fitness.Dto.CursorPageDto;
+import pafapp.Fitness.Dto.SearchHitDto;
+import pafapp.Fitness.Model.Comment;
+import pafapp.Fitness.Model.Post;
+import pafapp.Fitness.Model.User;
+import pafapp.Fitness.Service.SearchService;
+import pafapp.Fitness.search.SearchDocument;
+import pafapp.Fitness.search.SearchIndex;
+
+@Service
+@AllArgsConstructor
+public class SearchServiceImpl implements SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchServiceImpl.class);
+
+    private static final int MAX_LIMIT = 50;
+    private static final int MAX_TERMS = 8;
+    private static final int SNIPPET_LENGTH = 160;
+    private static final Set<String> TYPES = Set.of(SearchDocument.POST, SearchDocument.COMMENT, SearchDocument.USER);
+
+    // Relevance first; uid makes the order total so (score, uid) is a stable cursor across index refreshes
+    private static final Sort RANKING = new Sort(SortField.FIELD_SCORE, new SortField(SearchIndex.UID, SortField.Type.STRING));
+
+    private final SearchIndex searchIndex;
+
+    @Override
+    public CursorPageDto<SearchHitDto> search(String text, String type, String after, int limit) {
+        if (type != null && !type.isBlank() && !TYPES.contains(type)) {
+            throw new IllegalArgumentException("Unknown search type: " + type);
+        }
+        Query query = buildQuery(text, type);
+        if (query == null) {
+            return new CursorPageDto<>(new ArrayList<>(), null);
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Object[] afterFields = after == null || after.isBlank() ? null : decodeCursor(after);
+
+        try {
+            IndexSearcher searcher = searchIndex.acquire();
+            try {
+                // Ties are broken by uid, so the doc id only matters for the cursor's own hit: the highest
+                // doc id this reader accepts keeps that hit off the next page
+                FieldDoc afterDoc = afterFields == null ? null
+                        : new FieldDoc(searcher.getIndexReader().maxDoc() - 1, (Float) afterFields[0], afterFields);
+                // One extra hit tells whether another page exists
+                TopFieldDocs top = searcher.searchAfter(afterDoc, query, pageSize + 1, RANKING, true);
+                StoredFields storedFields = searcher.storedFields();
+                int count = Math.min(top.scoreDocs.length, pageSize);
+
+                List<SearchHitDto> hits = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    hits.add(toHit(storedFields.document(top.scoreDocs[i].doc), top.scoreDocs[i].score));
+                }
+                String nextCursor = top.scoreDocs.length > pageSize
+                        ? encodeCursor((FieldDoc) top.scoreDocs[count - 1])
+                        : null;
+                return new CursorPageDto<>(hits, nextCursor);
+            } finally {
+                searchIndex.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Every query term has to match title or body exactly, as a prefix, or within a small edit distance;
+    // exact matches and title matches rank highest
+    private Query buildQuery(String text, String type) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            addTermClauses(anyField, SearchIndex.TITLE, term, 2f);
+            addTermClauses(anyField, SearchIndex.BODY, term, 1f);
+            query.add(anyField.build(), Occur.MUST);
+        }
+        if (type != null && !type.isBlank()) {
+            query.add(new TermQuery(new Term(SearchIndex.TYPE, type)), Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private static void addTermClauses(BooleanQuery.Builder builder, String field, String term, float weight) {
+        Term t = new Term(field, term);
+        builder.add(new BoostQuery(new TermQuery(t), 3f * weight), Occur.SHOULD);
+        if (term.length() >= 2) {
+            builder.add(new BoostQuery(new PrefixQuery(t), 1.5f * weight), Occur.SHOULD);
+        }
+        int maxEdits = term.length() < 4 ? 0 : term.length() < 7 ? 1 : 2;
+        if (maxEdits > 0) {
+            // First character must match, which keeps the term expansion small
+            builder.add(new BoostQuery(new FuzzyQuery(t, maxEdits, 1), weight), Occur.SHOULD);
+        }
+    }
+
+    // Same analyzer as indexing, so case and punctuation are normalised identically
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        try (TokenStream stream = searchIndex.analyzer().tokenStream(SearchIndex.BODY, text)) {
+            CharTermAttribute attribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < MAX_TERMS) {
+                terms.add(attribute.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static SearchHitDto toHit(Document doc, float score) {
+        String type = doc.get(SearchIndex.TYPE);
+        String id = doc.get(SearchIndex.ID);
+        Long postId = SearchDocument.POST.equals(type) ? Long.valueOf(id)
+                : doc.get(SearchIndex.POST_ID) != null ? Long.valueOf(doc.get(SearchIndex.POST_ID)) : null;
+        String body = doc.get(SearchIndex.BODY);
+        String snippet = body == null || body.length() <= SNIPPET_LENGTH ? body : body.substring(0, SNIPPET_LENGTH) + "…";
+        return new SearchHitDto(type, id, postId, doc.get(SearchIndex.TITLE), snippet, score);
+    }
+
+    private static String encodeCursor(FieldDoc last) {
+        String raw = Float.floatToIntBits((Float) last.fields[0]) + "," + ((BytesRef) last.fields[1]).utf8ToString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int comma = raw.indexOf(',');
+            if (comma < 0) {
+                throw new IllegalArgumentException("Malformed cursor: " + cursor);
+            }
+            float score = Float.intBitsToFloat(Integer.parseInt(raw.substring(0, comma)));
+            BytesRef uid = new BytesRef(raw.substring(comma + 1));
+            return new Object[] { score, uid };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+    }
+
+    @Override
+    public void indexPost(Post post) {
+        SearchDocument document = SearchDocument.of(post);
+        afterCommit(() -> searchIndex.update(document));
+    }
+
+    @Override
+    public void removePost(Long postId) {
+        afterCommit(() -> searchIndex.deletePost(postId));
+    }
+
+    @Override
+    public void indexComment(Comment comment) {
+        SearchDocument document = SearchDocument.of(comment);
+        afterCommit(() -> searchIndex.update(document));
+    }
+
+    @Override
+    public void removeComment(Long commentId) {
+        afterCommit(() -> searchIndex.delete(SearchDocument.uid(SearchDocument.COMMENT, commentId)));
+    }
+
+    @Override
+    public void indexUser(User user) {
+        SearchDocument document = SearchDocument.of(user);
+        afterCommit(() -> searchIndex.update(document));
+    }
+
+    // Documents are captured now and written once the transaction commits (immediately without one).
+    // A failed index write only logs; the startup rebuild brings the index back in line.
+    private void afterCommit(Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                log.warn("Search index update failed", e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+}
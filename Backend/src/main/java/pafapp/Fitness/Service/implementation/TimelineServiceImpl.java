@@ -0,0 +1,175 @@
+package pafapp.Fitness.Service.implementation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import pafapp.Fitness.Model.Post;
+import pafapp.Fitness.Service.TimelineService;
+import pafapp.Fitness.cache.TimelineStore;
+import pafapp.Fitness.repository.FollowRepository;
+import pafapp.Fitness.repository.PostRepository;
+import pafapp.Fitness.repository.UserStatsRepository;
+
+// Hybrid fan-out: regular authors push post ids into follower timelines on write,
+// authors above timeline.celebrity-threshold followers are pulled and merged at read time.
+// Pushes run after the post's transaction commits, on a small pool so the author's request does not
+// page through every follower; when the pool's queue is full the committing thread does it instead.
+@Service
+public class TimelineServiceImpl implements TimelineService {
+
+    private static final int FAN_OUT_BATCH = 1000;
+
+    private final TimelineStore timelineStore;
+    private final FollowRepository followRepository;
+    private final PostRepository postRepository;
+    private final UserStatsRepository userStatsRepository;
+    private final int capacity;
+    private final int celebrityThreshold;
+    private final ThreadPoolExecutor fanOutExecutor;
+
+    public TimelineServiceImpl(
+            TimelineStore timelineStore,
+            FollowRepository followRepository,
+            PostRepository postRepository,
+            UserStatsRepository userStatsRepository,
+            @Value("${timeline.capacity:500}") int capacity,
+            @Value("${timeline.celebrity-threshold:10000}") int celebrityThreshold,
+            @Value("${timeline.fan-out.threads:2}") int fanOutThreads,
+            @Value("${timeline.fan-out.queue-capacity:1000}") int fanOutQueueCapacity
+    ) {
+        this.timelineStore = timelineStore;
+        this.followRepository = followRepository;
+        this.postRepository = postRepository;
+        this.userStatsRepository = userStatsRepository;
+        this.capacity = capacity;
+        this.celebrityThreshold = celebrityThreshold;
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.fanOutExecutor = new ThreadPoolExecutor(fanOutThreads, fanOutThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fanOutQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "timeline-fan-out-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Override
+    public void fanOut(Post post) {
+        String authorId = post.getUserId();
+        Long postId = post.getId();
+        // A rolled-back post never reaches a timeline
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fanOutExecutor.execute(() -> push(authorId, postId));
+                }
+            });
+        } else {
+            fanOutExecutor.execute(() -> push(authorId, postId));
+        }
+    }
+
+    private void push(String authorId, Long postId) {
+        timelineStore.push(authorId, postId);
+
+        Integer followers = userStatsRepository.findFollowersCountById(authorId);
+        if (followers != null && followers > celebrityThreshold) {
+            return; // fan-out-on-read keeps celebrity writes O(1)
+        }
+
+        Long afterEdgeId = 0L;
+        while (true) {
+            List<Object[]> rows = followRepository.findFollowerIdsAfter(authorId, afterEdgeId, PageRequest.of(0, FAN_OUT_BATCH));
+            for (Object[] row : rows) {
+                timelineStore.push((String) row[1], postId);
+            }
+            if (rows.size() < FAN_OUT_BATCH) {
+                return;
+            }
+            afterEdgeId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    @Override
+    public List<Long> readTimeline(String userId, Long beforeId, int limit) {
+        // Seeded before any post query here: the rebuild's snapshot is taken after the timeline started
+        // collecting pushes, so a post committed meanwhile is in one or the other
+        List<String> celebrities = followRepository.findCelebrityFolloweeIds(userId, celebrityThreshold);
+        if (!timelineStore.isMaterialized(userId)) {
+            timelineStore.seedIfAbsent(userId, () -> loadIds(pushSources(userId, celebrities), null, capacity));
+        }
+
+        List<Long> pushed = timelineStore.read(userId, beforeId, limit);
+        if (pushed.size() < limit) {
+            // Past the end of the ring buffer: continue from the database
+            Long oldest = pushed.isEmpty() ? beforeId : pushed.get(pushed.size() - 1);
+            pushed = merge(pushed, loadIds(pushSources(userId, celebrities), oldest, limit - pushed.size()), limit);
+        }
+
+        if (celebrities.isEmpty()) {
+            return pushed;
+        }
+        return merge(pushed, loadIds(celebrities, beforeId, limit), limit);
+    }
+
+    @Override
+    public void invalidate(String userId) {
+        timelineStore.evict(userId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdown();
+    }
+
+    // Authors whose posts are pushed into this user's timeline: own posts plus non-celebrity followees
+    private List<String> pushSources(String userId, List<String> celebrities) {
+        Set<String> sources = new HashSet<>(followRepository.findFolloweeIds(userId));
+        sources.removeAll(celebrities);
+        sources.add(userId);
+        return new ArrayList<>(sources);
+    }
+
+    private List<Long> loadIds(List<String> authorIds, Long beforeId, int limit) {
+        if (authorIds.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        PageRequest page = PageRequest.of(0, limit);
+        return beforeId == null
+                ? postRepository.findIdsByUserIds(authorIds, page)
+                : postRepository.findIdsByUserIdsBefore(authorIds, beforeId, page);
+    }
+
+    private static List<Long> merge(List<Long> a, List<Long> b, int limit) {
+        TreeSet<Long> merged = new TreeSet<>(Comparator.reverseOrder());
+        merged.addAll(a);
+        merged.addAll(b);
+        List<Long> page = new ArrayList<>(limit);
+        for (Long id : merged) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(id);
+        }
+        return page;
+    }
+}
@@ -1,7 +1,8 @@
 package pafapp.Fitness.Service.implementation;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.BeanUtils;
@@ -12,12 +13,21 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import pafapp.Fitness.Dto.FollowStateDto;
 import pafapp.Fitness.Dto.UserDto;
 import pafapp.Fitness.Dto.UserResDto;
+import pafapp.Fitness.Dto.UserSuggestionDto;
 import pafapp.Fitness.Model.RegistrationSource;
 import pafapp.Fitness.Model.User;
+import pafapp.Fitness.Model.UserStats;
+import pafapp.Fitness.Service.FollowGraphService;
+import pafapp.Fitness.Service.MediaStoreService;
+import pafapp.Fitness.Service.SearchService;
 import pafapp.Fitness.Service.UserService;
-import pafapp.Fitness.repository.PostRepository;
+import pafapp.Fitness.cache.UserSuggestIndex;
+import pafapp.Fitness.cache.UserSummary;
+import pafapp.Fitness.cache.UserSummaryCache;
+import pafapp.Fitness.repository.UserStatsRepository;
 import pafapp.Fitness.repository.UserRepository;
 
 @Service
@@ -30,7 +40,25 @@ public class UserServiceImpl implements UserService {
     private PasswordEncoder passwordEncoder;
 
     @Autowired
-    private PostRepository postRepository;
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private MediaStoreService mediaStoreService;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private UserSuggestIndex userSuggestIndex;
+
+    @Autowired
+    private UserSummaryCache userSummaryCache;
 
     @Override
 public ResponseEntity<Object> createUser(User user) {
@@ -48,14 +76,16 @@ public ResponseEntity<Object> createUser(User user) {
 
         // Prepare user details
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        user.setFollowedUsers(user.getFollowedUsers() != null ? user.getFollowedUsers() : new ArrayList<>());
-        user.setFollowingUsers(user.getFollowingUsers() != null ? user.getFollowingUsers() : new ArrayList<>());
-        user.setFollowersCount(user.getFollowersCount() >= 0 ? user.getFollowersCount() : 0);
-        user.setFollowingCount(user.getFollowingCount() >= 0 ? user.getFollowingCount() : 0);
+        user.setProfileImage(mediaStoreService.toReference(user.getProfileImage()));
 
         User savedUser = userRepository.save(user);
+        searchService.indexUser(savedUser);
+        userSuggestIndex.upsert(savedUser);
         return ResponseEntity.ok("Registered successfully");
 
+    } catch (IllegalArgumentException e) {
+        // Malformed or oversized inline profile image
+        return ResponseEntity.badRequest().body(e.getMessage());
     } catch (DataIntegrityViolationException e) {
         return ResponseEntity.internalServerError().body("Database error: " + e.getMessage());
     } catch (Exception e) {
@@ -68,55 +98,38 @@ public ResponseEntity<Object> createUser(User user) {
     @Override
     public UserDto getUserById(String userId) {
         return userRepository.findById(userId)
-                .map(user -> {
-                    UserDto userDTO = new UserDto();
-                    BeanUtils.copyProperties(user, userDTO);
-                    return userDTO;
-                })
+                .map(user -> toUserDto(user, getUserStats(userId)))
                 .orElse(null);
     }
 
     @Override
     public List<UserDto> getAllUsers() {
-        return userRepository.findAll()
+        List<User> users = userRepository.findAll();
+        // One IN (...) read for every user's counters
+        Map<String, UserStats> stats = userStatsRepository
+                .findByUserIdIn(users.stream().map(User::getId).toList())
                 .stream()
-                .map(user -> {
-                    UserDto userDTO = new UserDto();
-                    BeanUtils.copyProperties(user, userDTO);
-                    return userDTO;
-                })
+                .collect(Collectors.toMap(UserStats::getUserId, Function.identity()));
+        return users.stream()
+                .map(user -> toUserDto(user, stats.getOrDefault(user.getId(), new UserStats(user.getId(), 0, 0, 0))))
                 .collect(Collectors.toList());
     }
 
+    private static UserDto toUserDto(User user, UserStats stats) {
+        UserDto userDTO = new UserDto();
+        BeanUtils.copyProperties(user, userDTO);
+        userDTO.setFollowersCount(stats.getFollowersCount());
+        userDTO.setFollowingCount(stats.getFollowingCount());
+        return userDTO;
+    }
+
     @Override
     public ResponseEntity<Object> followUser(String userId, String followedUserId) {
         try {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found with id " + userId));
-            User followUser = userRepository.findById(followedUserId)
-                    .orElseThrow(() -> new RuntimeException("User not found with id: " + followedUserId));
-
-            if (user.getFollowedUsers() == null) {
-                user.setFollowedUsers(new ArrayList<>());
-            }
-            if (followUser.getFollowingUsers() == null) {
-                followUser.setFollowingUsers(new ArrayList<>());
-            }
-
-            if (user.getFollowedUsers().contains(followedUserId)) {
-                user.getFollowedUsers().remove(followedUserId);
-                followUser.getFollowingUsers().remove(userId);
-                user.setFollowersCount(user.getFollowersCount() - 1);
-                followUser.setFollowingCount(followUser.getFollowingCount() - 1);
-            } else {
-                user.getFollowedUsers().add(followedUserId);
-                followUser.getFollowingUsers().add(userId);
-                user.setFollowersCount(user.getFollowersCount() + 1);
-                followUser.setFollowingCount(followUser.getFollowingCount() + 1);
-            }
-            userRepository.save(user);
-            userRepository.save(followUser);
-            return new ResponseEntity<>(user, HttpStatus.OK);
+            boolean following = followGraphService.toggle(userId, followedUserId);
+            return new ResponseEntity<>(new FollowStateDto(userId, followedUserId, following), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         } catch (RuntimeException e) {
             return new ResponseEntity<>("Server Error", HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -166,9 +179,48 @@ public ResponseEntity<Object> createUser(User user) {
         }
     }
 
-        @Override
-    public int getPostCountByUserId(String userId) {
-        return postRepository.countByUserId(userId);
+    @Override
+    public UserStats getUserStats(String userId) {
+        // Single primary-key read instead of COUNT(*) over posts on every profile load
+        return userStatsRepository.findById(userId).orElseGet(() -> new UserStats(userId, 0, 0, 0));
+    }
+
+    @Override
+    public User updateProfile(String userId, String name, String profileImage) {
+        String imageReference = profileImage != null ? mediaStoreService.toReference(profileImage) : null;
+        User updated = optimisticRetry.execute(() -> {
+            User user = userRepository.findById(userId).orElse(null);
+            if (user == null) {
+                return null;
+            }
+            if (name != null) {
+                user.setName(name);
+            }
+            if (imageReference != null) {
+                user.setProfileImage(imageReference);
+            }
+            return userRepository.save(user);
+        });
+        if (updated != null) {
+            searchService.indexUser(updated);
+            userSuggestIndex.upsert(updated);
+        }
+        return updated;
+    }
+
+    @Override
+    public List<UserSuggestionDto> suggestUsers(String query, int limit) {
+        List<UserSuggestIndex.Match> matches = userSuggestIndex.suggest(query, limit);
+        // Display name and avatar for the handful of matches come from the shared author cache
+        Map<String, UserSummary> summaries = userSummaryCache.getAll(
+                matches.stream().map(UserSuggestIndex.Match::getUserId).toList());
+        return matches.stream()
+                .filter(match -> summaries.containsKey(match.getUserId()))
+                .map(match -> {
+                    UserSummary summary = summaries.get(match.getUserId());
+                    return new UserSuggestionDto(match.getUserId(), summary.getName(), summary.getProfileImage(),
+                            match.getFollowers());
+                })
+                .toList();
     }
-        
 }
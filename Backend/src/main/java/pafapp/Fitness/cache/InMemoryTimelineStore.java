@@ -0,0 +1,154 @@
+package pafapp.Fitness.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Bounded ring buffer of post ids per user, held in a bounded map of users.
+// Evicted or never-built timelines are rebuilt from the database by TimelineService.
+@Component
+public class InMemoryTimelineStore implements TimelineStore {
+
+    private final Map<String, Ring> timelines = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final int maxUsers;
+
+    public InMemoryTimelineStore(
+            @Value("${timeline.capacity:500}") int capacity,
+            @Value("${timeline.max-users:100000}") int maxUsers
+    ) {
+        this.capacity = capacity;
+        this.maxUsers = maxUsers;
+    }
+
+    @Override
+    public boolean isMaterialized(String userId) {
+        Ring ring = timelines.get(userId);
+        return ring != null && ring.isSeeded();
+    }
+
+    // The empty ring is installed first so it collects pushes while the loader runs; only the reader that
+    // installed it seeds it, and a concurrent reader meanwhile falls back to the database
+    @Override
+    public void seedIfAbsent(String userId, Supplier<List<Long>> loader) {
+        makeRoom();
+        Ring ring = new Ring(capacity);
+        if (timelines.putIfAbsent(userId, ring) != null) {
+            return;
+        }
+        try {
+            ring.seed(loader.get());
+        } catch (RuntimeException e) {
+            timelines.remove(userId, ring);
+            throw e;
+        }
+    }
+
+    @Override
+    public void push(String userId, long postId) {
+        Ring ring = timelines.get(userId);
+        if (ring != null) {
+            ring.push(postId);
+        }
+    }
+
+    @Override
+    public List<Long> read(String userId, Long beforeId, int limit) {
+        Ring ring = timelines.get(userId);
+        return ring != null ? ring.read(beforeId, limit) : new ArrayList<>();
+    }
+
+    @Override
+    public void evict(String userId) {
+        timelines.remove(userId);
+    }
+
+    // Cheap approximate bound: drop arbitrary timelines, they are rebuilt on their next read
+    private void makeRoom() {
+        Iterator<String> it = timelines.keySet().iterator();
+        while (timelines.size() >= maxUsers && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static final class Ring {
+        private final long[] ids;
+        private int head; // next write slot
+        private int size;
+        private boolean seeded;
+
+        Ring(int capacity) {
+            this.ids = new long[capacity];
+        }
+
+        // Kept sorted by id: fan-out threads can deliver a newer post before an older one, and read pages
+        // by id. The newest id lands at the head without shifting anything
+        synchronized void push(long id) {
+            int pos = size;
+            while (pos > 0 && ids[slot(pos - 1)] > id) {
+                pos--;
+            }
+            if (pos > 0 && ids[slot(pos - 1)] == id) {
+                return;
+            }
+            if (size < ids.length) {
+                head = (head + 1) % ids.length;
+                size++;
+                for (int i = size - 1; i > pos; i--) {
+                    ids[slot(i)] = ids[slot(i - 1)];
+                }
+                ids[slot(pos)] = id;
+            } else if (pos > 0) {
+                // Full: the oldest id falls off; an id older than all of them is not kept at all
+                for (int i = 0; i < pos - 1; i++) {
+                    ids[slot(i)] = ids[slot(i + 1)];
+                }
+                ids[slot(pos - 1)] = id;
+            }
+        }
+
+        // Array index of the i-th id counting from the oldest
+        private int slot(int i) {
+            return Math.floorMod(head - size + i, ids.length);
+        }
+
+        synchronized boolean isSeeded() {
+            return seeded;
+        }
+
+        // Merges the loaded ids with whatever was pushed since the ring was installed
+        synchronized void seed(List<Long> postIdsNewestFirst) {
+            TreeSet<Long> merged = new TreeSet<>(Comparator.reverseOrder());
+            merged.addAll(postIdsNewestFirst);
+            merged.addAll(read(null, size));
+            List<Long> newest = new ArrayList<>(merged).subList(0, Math.min(merged.size(), ids.length));
+            head = 0;
+            size = 0;
+            // Insert oldest first so the newest ends up at the head
+            for (int i = newest.size() - 1; i >= 0; i--) {
+                push(newest.get(i));
+            }
+            seeded = true;
+        }
+
+        synchronized List<Long> read(Long beforeId, int limit) {
+            List<Long> page = new ArrayList<>(Math.min(limit, size));
+            for (int i = 1; i <= size && page.size() < limit; i++) {
+                long id = ids[(head - i + ids.length) % ids.length];
+                if (beforeId == null || id < beforeId) {
+                    page.add(id);
+                }
+            }
+            return page;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package pafapp.Fitness.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import pafapp.Fitness.Model.Post;
+
+// Write-behind deltas for the hot per-post counters (likes, views). Writers add to a LongAdder per post
+// instead of updating the posts row; a flusher thread writes one UPDATE per touched post and counter in a
+// JDBC batch every flush interval, and once more when the context stops. Each batch is one transaction,
+// so a failed flush leaves no row half-applied before its deltas are re-queued. The UPDATEs bypass Hibernate,
+// so each flushed post is then evicted from the second-level cache and its next load sees the new counts.
+// The stored columns lag by at most one interval; readers add pending() to hide that.
+@Component
+public class PostCounterBuffer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PostCounterBuffer.class);
+
+    public enum Counter {
+        LIKES("like_count"),
+        VIEWS("view_count");
+
+        private final String flushSql;
+
+        Counter(String column) {
+            this.flushSql = "UPDATE posts SET " + column + " = " + column + " + ? WHERE id = ?";
+        }
+    }
+
+    private final Map<Counter, Map<Long, LongAdder>> deltas = new EnumMap<>(Counter.class);
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache secondLevelCache;
+    private final Duration flushInterval;
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    public PostCounterBuffer(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${posts.counters.flush-interval:PT0.3S}") Duration flushInterval
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.secondLevelCache = entityManagerFactory.getCache();
+        this.flushInterval = flushInterval;
+        for (Counter counter : Counter.values()) {
+            deltas.put(counter, new ConcurrentHashMap<>());
+        }
+    }
+
+    // Buffered after the surrounding transaction commits so a rolled-back toggle never counts
+    public void increment(Counter counter, Long postId, int delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(counter, postId, delta);
+                }
+            });
+        } else {
+            add(counter, postId, delta);
+        }
+    }
+
+    public long pending(Counter counter, Long postId) {
+        LongAdder adder = deltas.get(counter).get(postId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    // Adds inside compute, so an increment can never land in an adder the flusher is removing
+    private void add(Counter counter, Long postId, long delta) {
+        deltas.get(counter).compute(postId, (id, adder) -> {
+            LongAdder target = adder != null ? adder : new LongAdder();
+            target.add(delta);
+            return target;
+        });
+    }
+
+    public synchronized void flush() {
+        for (Counter counter : Counter.values()) {
+            flush(counter);
+        }
+    }
+
+    private void flush(Counter counter) {
+        Map<Long, LongAdder> pending = deltas.get(counter);
+        List<Object[]> batch = new ArrayList<>();
+        for (Long postId : pending.keySet()) {
+            long[] drained = new long[1];
+            // Posts untouched since the last flush drain to zero and are dropped, so the map only
+            // holds recently active posts
+            pending.computeIfPresent(postId, (id, adder) -> {
+                drained[0] = adder.sumThenReset();
+                return drained[0] != 0 ? adder : null;
+            });
+            if (drained[0] != 0) {
+                batch.add(new Object[] { drained[0], postId });
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(counter.flushSql, batch));
+        } catch (RuntimeException e) {
+            // The batch rolled back as a whole; put the deltas back so the next flush retries them
+            for (Object[] row : batch) {
+                add(counter, (Long) row[1], (Long) row[0]);
+            }
+            log.warn("{} flush of {} posts failed, retrying next interval", counter, batch.size(), e);
+            return;
+        }
+        for (Object[] row : batch) {
+            secondLevelCache.evict(Post.class, row[1]);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Post counter flush failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "post-counter-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this) {
+            if (flusher != null) {
+                flusher.shutdown();
+            }
+            running = false;
+        }
+        try {
+            if (flusher != null) {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Final write of whatever is still buffered, while the DataSource is still open
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the web server (DEFAULT_PHASE - 1024) has drained in-flight requests
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+}
@@ -0,0 +1,24 @@
+package pafapp.Fitness.cache;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+// Per-user home timeline of post ids, newest first. The in-process InMemoryTimelineStore is the
+// default; an external store (e.g. Redis lists) can replace it by declaring a @Primary bean.
+public interface TimelineStore {
+
+    // False until the user's timeline has been seeded since startup/eviction
+    boolean isMaterialized(String userId);
+
+    // Builds the user's timeline from loader (ids newest first) unless one exists or is being built.
+    // Pushes that arrive while loader runs are kept and merged in, never overwritten
+    void seedIfAbsent(String userId, Supplier<List<Long>> loader);
+
+    // Adds a post id, in id order, to a timeline that is materialized or being seeded; no-op otherwise
+    void push(String userId, long postId);
+
+    // Up to limit ids strictly older than beforeId (or from the head when beforeId is null)
+    List<Long> read(String userId, Long beforeId, int limit);
+
+    void evict(String userId);
+}
@@ -0,0 +1,435 @@
+package pafapp.Fitness.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pafapp.Fitness.Model.User;
+
+// Prefix index over normalised user names (whole name and each word) and emails for typeahead.
+// The bulk of it is an immutable snapshot of packed sorted arrays: keys and user ids live in two byte
+// blobs with int offsets, so 1M users cost a few tens of MB and no per-key objects. A prefix maps to one
+// contiguous key range found by binary search; short ranges are scanned for the top followers, and
+// ranges too large to scan have their top list precomputed when the snapshot is built.
+// Writes since the last snapshot sit in a small overlay that queries merge in; UserSuggestRefreshJob
+// rebuilds the snapshot (and picks up follower count changes) periodically.
+@Component
+public class UserSuggestIndex {
+
+    public static final int MAX_LIMIT = 20;
+    // Ranges up to this many keys are scanned per query, larger ones use a precomputed top list
+    private static final int SCAN_LIMIT = 2048;
+
+    // A user as seen by the index
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final String userId;
+        private final String name;
+        private final String email;
+        private final int followers;
+    }
+
+    // A ranked suggestion
+    @Getter
+    @AllArgsConstructor
+    public static class Match {
+        private final String userId;
+        private final int followers;
+    }
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private volatile Snapshot snapshot = Snapshot.build(new ArrayList<>());
+    private final Map<String, Entry> overlay = new ConcurrentHashMap<>();
+
+    // Registered writes become visible after commit, without waiting for the next rebuild. A user already
+    // in the overlay keeps the follower count tracked there; otherwise it starts from the snapshot's
+    public void upsert(User user) {
+        afterCommit(() -> overlay.compute(user.getId(), (id, previous) -> {
+            int followers;
+            if (previous != null) {
+                followers = previous.getFollowers();
+            } else {
+                Snapshot current = snapshot;
+                int slot = current.slotOf(id);
+                followers = slot >= 0 ? current.followers[slot] : 0;
+            }
+            return new Entry(id, user.getName(), user.getEmail(), followers);
+        }));
+    }
+
+    // Keeps overlay entries ranked by their live follower count; snapshot users pick it up on the next rebuild
+    public void followersChanged(String userId, int delta) {
+        afterCommit(() -> overlay.computeIfPresent(userId, (id, entry) -> new Entry(
+                id, entry.getName(), entry.getEmail(), Math.max(0, entry.getFollowers() + delta))));
+    }
+
+    private static void afterCommit(Runnable apply) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    public List<Match> suggest(String query, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return new ArrayList<>();
+        }
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        Snapshot current = snapshot;
+
+        // Users written since the snapshot are answered from the overlay instead, so the snapshot is asked
+        // for as many more candidates as it had overlaid ones in its top list, until size remain
+        List<Match> matches = new ArrayList<>();
+        int wanted = size;
+        while (true) {
+            int[] top = current.top(prefixBytes, wanted);
+            matches.clear();
+            for (int slot : top) {
+                String userId = current.idAt(slot);
+                if (!overlay.containsKey(userId)) {
+                    matches.add(new Match(userId, current.followers[slot]));
+                }
+            }
+            if (matches.size() >= size || top.length < wanted) {
+                break;
+            }
+            wanted = size + (top.length - matches.size());
+        }
+        for (Entry entry : overlay.values()) {
+            for (String key : keysOf(entry)) {
+                if (key.startsWith(prefix)) {
+                    matches.add(new Match(entry.getUserId(), entry.getFollowers()));
+                    break;
+                }
+            }
+        }
+        // Stable sort keeps the snapshot's key order among equal follower counts
+        matches.sort(Comparator.comparingInt(Match::getFollowers).reversed());
+        return matches.size() > size ? new ArrayList<>(matches.subList(0, size)) : matches;
+    }
+
+    // Swaps in a snapshot built from a full scan. The overlay is captured before the scan is opened, so
+    // every captured entry (applied after its commit) is contained in the scan and dropped; anything
+    // written from then on stays in the overlay. The scan is closed here.
+    public int rebuild(Supplier<Stream<Entry>> scan) {
+        Map<String, Entry> captured = new HashMap<>(overlay);
+        List<Entry> all = new ArrayList<>();
+        try (Stream<Entry> entries = scan.get()) {
+            entries.forEach(all::add);
+        }
+        snapshot = Snapshot.build(all);
+        captured.forEach(overlay::remove); // remove(key, value): only entries not rewritten meanwhile
+        return all.size();
+    }
+
+    public int overlaySize() {
+        return overlay.size();
+    }
+
+    // Lower-cased, accents stripped, whitespace collapsed: "  Zoë  Ryan" -> "zoe ryan"
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        // Decomposing is only needed when there is something to strip
+        String stripped = isAscii(text) ? text : MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(stripped.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whole name, every word of it, and the email
+    static Set<String> keysOf(Entry entry) {
+        Set<String> keys = new LinkedHashSet<>();
+        String name = normalize(entry.getName());
+        if (!name.isEmpty()) {
+            keys.add(name);
+            keys.addAll(Arrays.asList(name.split(" ")));
+        }
+        String email = normalize(entry.getEmail());
+        if (!email.isEmpty()) {
+            keys.add(email);
+        }
+        return keys;
+    }
+
+    private static final class Snapshot {
+        // Users sorted by id; slot = position in that order
+        private final byte[] idBytes;
+        private final int[] idOffsets;
+        private final int[] followers;
+        // Keys sorted by unsigned bytes (= code point order for UTF-8), each pointing at a user slot
+        private final byte[] keyBytes;
+        private final int[] keyOffsets;
+        private final int[] keySlots;
+        // Top slots for every prefix whose key range is longer than SCAN_LIMIT (ISO-8859-1 view of the bytes)
+        private final Map<String, int[]> heavyPrefixes;
+
+        private Snapshot(byte[] idBytes, int[] idOffsets, int[] followers, byte[] keyBytes, int[] keyOffsets,
+                int[] keySlots, Map<String, int[]> heavyPrefixes) {
+            this.idBytes = idBytes;
+            this.idOffsets = idOffsets;
+            this.followers = followers;
+            this.keyBytes = keyBytes;
+            this.keyOffsets = keyOffsets;
+            this.keySlots = keySlots;
+            this.heavyPrefixes = heavyPrefixes;
+        }
+
+        static Snapshot build(List<Entry> entries) {
+            int users = entries.size();
+            // Slots follow the unsigned byte order of the ids, the same order slotOf() searches in
+            byte[][] userIds = new byte[users][];
+            Integer[] userOrder = new Integer[users];
+            for (int i = 0; i < users; i++) {
+                userIds[i] = entries.get(i).getUserId().getBytes(StandardCharsets.UTF_8);
+                userOrder[i] = i;
+            }
+            Arrays.sort(userOrder, (a, b) -> Arrays.compareUnsigned(userIds[a], userIds[b]));
+
+            int[] followers = new int[users];
+            BlobBuilder ids = new BlobBuilder(users);
+            List<KeyRef> keys = new ArrayList<>();
+            for (int slot = 0; slot < users; slot++) {
+                Entry entry = entries.get(userOrder[slot]);
+                ids.add(userIds[userOrder[slot]]);
+                followers[slot] = entry.getFollowers();
+                for (String key : keysOf(entry)) {
+                    keys.add(new KeyRef(key.getBytes(StandardCharsets.UTF_8), slot));
+                }
+            }
+
+            keys.sort((a, b) -> Arrays.compareUnsigned(a.key, b.key));
+            BlobBuilder sortedKeys = new BlobBuilder(keys.size());
+            int[] keySlots = new int[keys.size()];
+            for (int i = 0; i < keys.size(); i++) {
+                sortedKeys.add(keys.get(i).key);
+                keySlots[i] = keys.get(i).slot;
+            }
+
+            Snapshot snapshot = new Snapshot(ids.bytes(), ids.offsets(), followers,
+                    sortedKeys.bytes(), sortedKeys.offsets(), keySlots, new HashMap<>());
+            snapshot.precomputeHeavy(0, keySlots.length, 1);
+            return snapshot;
+        }
+
+        // Splits [from, to) by the byte at depth - 1 and stores a top list for every sub-range that is
+        // still too long to scan, recursing until ranges fit SCAN_LIMIT
+        private void precomputeHeavy(int from, int to, int depth) {
+            int i = from;
+            while (i < to) {
+                // Keys shorter than depth sort first and have no prefix of this length
+                if (keyLength(i) < depth) {
+                    i++;
+                    continue;
+                }
+                int end = upperBound(i, to, i, depth);
+                if (end - i > SCAN_LIMIT) {
+                    heavyPrefixes.put(new String(keyBytes, keyOffsets[i], depth, StandardCharsets.ISO_8859_1),
+                            scanTop(i, end));
+                    precomputeHeavy(i, end, depth + 1);
+                }
+                i = end;
+            }
+        }
+
+        // Up to n slots; beyond MAX_LIMIT a heavy range has no precomputed list and is scanned in full
+        int[] top(byte[] prefix, int n) {
+            int from = lowerBound(prefix);
+            int to = upperBound(from, keySlots.length, prefix);
+            if (to - from > SCAN_LIMIT && n <= MAX_LIMIT) {
+                int[] precomputed = heavyPrefixes.get(new String(prefix, StandardCharsets.ISO_8859_1));
+                if (precomputed != null) {
+                    return precomputed.length > n ? Arrays.copyOf(precomputed, n) : precomputed;
+                }
+            }
+            return scanTop(from, to, n);
+        }
+
+        private int[] scanTop(int from, int to) {
+            return scanTop(from, to, MAX_LIMIT);
+        }
+
+        // Highest-follower distinct users among keys [from, to); ties keep key order
+        private int[] scanTop(int from, int to, int n) {
+            int[] best = new int[n];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                int slot = keySlots[i];
+                boolean seen = false;
+                for (int j = 0; j < count; j++) {
+                    if (best[j] == slot) {
+                        seen = true;
+                        break;
+                    }
+                }
+                if (seen || (count == n && followers[slot] <= followers[best[count - 1]])) {
+                    continue;
+                }
+                int position = count == n ? count - 1 : count++;
+                while (position > 0 && followers[best[position - 1]] < followers[slot]) {
+                    best[position] = best[position - 1];
+                    position--;
+                }
+                best[position] = slot;
+            }
+            return Arrays.copyOf(best, count);
+        }
+
+        // First key >= prefix
+        private int lowerBound(byte[] prefix) {
+            int low = 0;
+            int high = keySlots.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (Arrays.compareUnsigned(keyBytes, keyOffsets[mid], keyOffsets[mid + 1], prefix, 0, prefix.length) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First key in [from, to) that does not start with prefix
+        private int upperBound(int from, int to, byte[] prefix) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (startsWith(mid, prefix, 0, prefix.length)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Same, with the prefix being the first depth bytes of key[keyIndex]
+        private int upperBound(int from, int to, int keyIndex, int depth) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (startsWith(mid, keyBytes, keyOffsets[keyIndex], depth)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private boolean startsWith(int keyIndex, byte[] prefix, int offset, int length) {
+            return keyLength(keyIndex) >= length && Arrays.equals(
+                    keyBytes, keyOffsets[keyIndex], keyOffsets[keyIndex] + length, prefix, offset, offset + length);
+        }
+
+        private int keyLength(int keyIndex) {
+            return keyOffsets[keyIndex + 1] - keyOffsets[keyIndex];
+        }
+
+        String idAt(int slot) {
+            return new String(idBytes, idOffsets[slot], idOffsets[slot + 1] - idOffsets[slot], StandardCharsets.UTF_8);
+        }
+
+        // Binary search over the id-sorted slots; -1 when the user is not in this snapshot
+        int slotOf(String userId) {
+            byte[] id = userId.getBytes(StandardCharsets.UTF_8);
+            int low = 0;
+            int high = followers.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compareId(mid, id);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        private int compareId(int slot, byte[] id) {
+            return Arrays.compareUnsigned(idBytes, idOffsets[slot], idOffsets[slot + 1], id, 0, id.length);
+        }
+    }
+
+    // Build-time pairing of a key with its user slot
+    private static final class KeyRef {
+        private final byte[] key;
+        private final int slot;
+
+        KeyRef(byte[] key, int slot) {
+            this.key = key;
+            this.slot = slot;
+        }
+    }
+
+    // Concatenates byte strings into one array plus an offsets table (n + 1 entries)
+    private static final class BlobBuilder {
+        private byte[] bytes = new byte[1024];
+        private final int[] offsets;
+        private int count;
+
+        BlobBuilder(int capacity) {
+            this.offsets = new int[capacity + 1];
+        }
+
+        void add(byte[] value) {
+            int start = offsets[count];
+            if (start + value.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, start + value.length));
+            }
+            System.arraycopy(value, 0, bytes, start, value.length);
+            offsets[++count] = start + value.length;
+        }
+
+        byte[] bytes() {
+            return Arrays.copyOf(bytes, offsets[count]);
+        }
+
+        int[] offsets() {
+            return offsets;
+        }
+    }
+}
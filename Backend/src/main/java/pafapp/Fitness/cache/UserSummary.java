@@ -0,0 +1,13 @@
+package pafapp.Fitness.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// What posts and comments need to render their author
+@Getter
+@AllArgsConstructor
+public class UserSummary {
+    private final String id;
+    private final String name;
+    private final String profileImage; // media URL
+}
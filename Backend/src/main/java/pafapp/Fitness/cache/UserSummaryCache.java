@@ -0,0 +1,113 @@
+package pafapp.Fitness.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import pafapp.Fitness.repository.UserRepository;
+
+// Read-through cache of author name + avatar by user id, so feed and comment responses show the
+// current profile instead of the copy taken when the row was written. Bounded and TTL'd; saves
+// that change a profile call invalidate() after commit. Misses for a whole page are loaded with one IN query.
+// A load that started before the key's last invalidation is returned but not cached, so a reader that
+// fetched the old profile just before the update cannot put it back for a whole TTL.
+@Component
+public class UserSummaryCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // nanoTime of each key's last invalidation, kept for one TTL (no load runs anywhere near that long)
+    private final Map<String, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public UserSummaryCache(
+            UserRepository userRepository,
+            @Value("${users.summary-cache.ttl:PT10M}") Duration ttl,
+            @Value("${users.summary-cache.max-entries:50000}") int maxEntries
+    ) {
+        this.userRepository = userRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    // Summaries for the given ids; unknown (deleted) users are simply absent from the result
+    public Map<String, UserSummary> getAll(Collection<String> userIds) {
+        Map<String, UserSummary> result = new HashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        long now = System.nanoTime();
+        for (String userId : userIds) {
+            if (userId == null) {
+                continue;
+            }
+            Entry entry = entries.get(userId);
+            if (entry != null && now - entry.loadedAt < ttlNanos) {
+                result.put(userId, entry.summary);
+            } else {
+                misses.add(userId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            makeRoom(misses.size());
+            long loadStarted = System.nanoTime();
+            for (Object[] row : userRepository.findSummariesByIds(misses)) {
+                UserSummary summary = new UserSummary((String) row[0], (String) row[1], (String) row[2]);
+                cache(summary, loadStarted);
+                result.put(summary.getId(), summary);
+            }
+        }
+        return result;
+    }
+
+    // Checked and written inside compute(), which invalidate() also goes through, so the two cannot interleave
+    private void cache(UserSummary summary, long loadStarted) {
+        invalidatedAt.compute(summary.getId(), (id, at) -> {
+            if (at == null || at - loadStarted < 0) {
+                entries.put(id, new Entry(summary, loadStarted));
+            }
+            return at;
+        });
+    }
+
+    public UserSummary get(String userId) {
+        return getAll(Set.of(userId)).get(userId);
+    }
+
+    public void invalidate(String userId) {
+        long now = System.nanoTime();
+        invalidatedAt.values().removeIf(at -> now - at > ttlNanos);
+        invalidatedAt.compute(userId, (id, at) -> {
+            entries.remove(id);
+            return now;
+        });
+    }
+
+    // Same approximate bound as InMemoryTimelineStore, and deliberately not LRU: it drops whichever keys
+    // the map iterates first, hot ones included; they reload on demand
+    private void makeRoom(int incoming) {
+        Iterator<String> it = entries.keySet().iterator();
+        while (entries.size() + incoming > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static final class Entry {
+        final UserSummary summary;
+        final long loadedAt;
+
+        Entry(UserSummary summary, long loadedAt) {
+            this.summary = summary;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package pafapp.Fitness.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Admission control in front of the connection pool. With requests on virtual threads there is no
+// thread pool to cap how many callers want a connection at once, so every checkout first takes a
+// permit from a fair semaphore: waiters park in FIFO order (cheap for virtual threads), at most
+// max-waiters queue up before new callers fail fast, and a permit goes back when the connection closes.
+// Permits default to the pool size, so Hikari never has waiters of its own and db.permits.wait is
+// the full pool-wait picture. Extends DelegatingDataSource so Boot's Hikari metrics still find the pool.
+public class BoundedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxWaiters;
+    private final long acquireTimeoutNanos;
+
+    private final Timer waitTimer;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public BoundedDataSource(DataSource target, int maxConcurrency, int maxWaiters, Duration acquireTimeout,
+            MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxWaiters = maxWaiters;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+
+        Gauge.builder("db.permits.in-use", permits, p -> maxConcurrency - p.availablePermits()).register(meterRegistry);
+        Gauge.builder("db.permits.waiting", permits, Semaphore::getQueueLength).register(meterRegistry);
+        this.waitTimer = Timer.builder("db.permits.wait")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedQueueFull = meterRegistry.counter("db.permits.rejected", "reason", "queue-full");
+        this.rejectedTimeout = meterRegistry.counter("db.permits.rejected", "reason", "timeout");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return guard(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return guard(() -> super.getConnection(username, password));
+    }
+
+    private void acquire() throws SQLException {
+        long started = System.nanoTime();
+        try {
+            // The timed form even with zero wait: plain tryAcquire() barges past parked waiters on a fair semaphore
+            if (!permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                // Approximate by design: the queue length is a snapshot, so the cap can be overshot slightly
+                if (permits.getQueueLength() >= maxWaiters) {
+                    rejectedQueueFull.increment();
+                    throw new SQLTransientConnectionException("Too many callers waiting for a database connection");
+                }
+                if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    rejectedTimeout.increment();
+                    throw new SQLTransientConnectionException("Timed out waiting for a database connection");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted waiting for a database connection", e);
+        }
+        waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    private Connection guard(ConnectionSupplier supplier) throws SQLException {
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                BoundedDataSource.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new PermitReleasingHandler(connection));
+    }
+
+    // Gives the permit back on the first close(); every other call goes straight to the pooled connection
+    private final class PermitReleasingHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PermitReleasingHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    try {
+                        target.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                    return null;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                }
+            }
+        }
+    }
+}
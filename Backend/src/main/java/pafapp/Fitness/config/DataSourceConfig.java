@@ -0,0 +1,62 @@
+package pafapp.Fitness.config;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Puts BoundedDataSource in front of the auto-configured Hikari pool (db.bounded=false leaves it bare).
+// db.max-concurrency defaults to the pool's maximum size, except on virtual threads: mysql-connector-j
+// 8.3 does its socket I/O inside synchronized blocks, so a virtual thread in a query pins its carrier.
+// The default then stays one below the carrier count (jdk.virtualThreadScheduler.parallelism, i.e. the
+// CPU count unless set), leaving a carrier free for everything that is not waiting on MySQL. Raise the
+// carrier parallelism to let more of the pool be used, or drop the cap once the driver is 9.x.
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    // Static so the post-processor is registered before the DataSource it wraps is created
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(
+            Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)
+                        || !environment.getProperty("db.bounded", Boolean.class, true)) {
+                    return bean;
+                }
+                Binder binder = Binder.get(environment);
+                boolean virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+                int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                        Runtime.getRuntime().availableProcessors());
+                int maxConcurrency = binder.bind("db.max-concurrency", Integer.class)
+                        .orElseGet(() -> virtualThreads
+                                ? Math.max(1, Math.min(hikari.getMaximumPoolSize(), carriers - 1))
+                                : hikari.getMaximumPoolSize());
+                if (virtualThreads && maxConcurrency >= carriers) {
+                    log.warn("db.max-concurrency={} is not below the {} virtual-thread carriers; "
+                            + "queries pin carriers and can stall every other request", maxConcurrency, carriers);
+                }
+                int maxWaiters = binder.bind("db.max-waiters", Integer.class).orElse(2000);
+                Duration acquireTimeout = binder.bind("db.acquire-timeout", Duration.class)
+                        .orElse(Duration.ofSeconds(5));
+                return new BoundedDataSource(hikari, maxConcurrency, maxWaiters, acquireTimeout,
+                        meterRegistry.getObject());
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package pafapp.Fitness.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import jakarta.servlet.http.HttpServletRequest;
+import pafapp.Fitness.Service.ImageDerivativeService;
+
+// Serves /uploads/media/<file>?w=<width> from the closest generated thumbnail.
+// Falls back to the original while the thumbnail is still being built; that fallback is sent with
+// no-cache, so the year-long immutable caching of the handler never pins the original to a ?w= URL.
+// When no thumbnail that wide will ever exist (small originals are not upscaled, or w is above every
+// configured width) the original is the final answer and keeps the handler's immutable caching.
+public class DerivativeResourceResolver implements ResourceResolver {
+
+    private final ImageDerivativeService imageDerivativeService;
+
+    public DerivativeResourceResolver(ImageDerivativeService imageDerivativeService) {
+        this.imageDerivativeService = imageDerivativeService;
+    }
+
+    @Override
+    @Nullable
+    public Resource resolveResource(@Nullable HttpServletRequest request, String requestPath,
+            List<? extends Resource> locations, ResourceResolverChain chain) {
+        String width = request != null ? request.getParameter("w") : null;
+        if (width != null && width.matches("\\d{1,4}")) {
+            Optional<Resource> derivative = imageDerivativeService
+                    .findDerivative(requestPath, Integer.parseInt(width))
+                    .map(FileSystemResource::new);
+            if (derivative.isPresent()) {
+                return derivative.get();
+            }
+            Resource original = chain.resolveResource(request, requestPath, locations);
+            if (original == null || imageDerivativeService.isOriginalFinal(requestPath, Integer.parseInt(width))) {
+                return original;
+            }
+            return new UncachedFallback(original);
+        }
+        return chain.resolveResource(request, requestPath, locations);
+    }
+
+    @Override
+    @Nullable
+    public String resolveUrlPath(String resourcePath, List<? extends Resource> locations, ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourcePath, locations);
+    }
+
+    // The handler applies HttpResource headers after its own Cache-Control, so this one wins
+    private static final class UncachedFallback extends FileSystemResource implements HttpResource {
+
+        private UncachedFallback(Resource original) {
+            super(fileOf(original));
+        }
+
+        private static File fileOf(Resource original) {
+            try {
+                return original.getFile();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setCacheControl(CacheControl.noCache());
+            return headers;
+        }
+    }
+}
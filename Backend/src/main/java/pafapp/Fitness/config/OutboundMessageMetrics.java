@@ -0,0 +1,51 @@
+package pafapp.Fitness.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Counts MESSAGE frames written to clients in websocket.messages.outbound, tagged by destination
+// (its rate is messages per second). Matches on the simp message type, since the STOMP command is only
+// set later by the protocol handler. User destinations are tagged as the client subscribed to them
+// (/user/queue/...), not per session, and topic names are cut to two segments to keep cardinality bounded.
+public class OutboundMessageMetrics implements ChannelInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public OutboundMessageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (!sent || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        // Set by the user destination handler on messages it resolved to a session's queue
+        String original = accessor.getFirstNativeHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION);
+        meterRegistry.counter("websocket.messages.outbound", "destination",
+                tag(original != null ? original : accessor.getDestination())).increment();
+    }
+
+    private static String tag(String destination) {
+        if (destination == null) {
+            return "none";
+        }
+        if (destination.startsWith("/user/")) {
+            return destination;
+        }
+        // A resolved user destination without the original header: /queue/notifications-user<sessionId>
+        int userSuffix = destination.indexOf("-user");
+        if (userSuffix > 0) {
+            destination = destination.substring(0, userSuffix);
+        }
+        int second = destination.indexOf('/', 1);
+        int third = second < 0 ? -1 : destination.indexOf('/', second + 1);
+        return third < 0 ? destination : destination.substring(0, third);
+    }
+}
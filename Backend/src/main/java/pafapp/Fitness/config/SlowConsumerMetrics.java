@@ -0,0 +1,32 @@
+package pafapp.Fitness.config;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Counts sessions closed for exceeding the send buffer or send time limit (slow consumers) in
+// websocket.sessions.evicted, next to the total in websocket.sessions.closed.
+public class SlowConsumerMetrics extends WebSocketHandlerDecorator {
+
+    private final Counter evicted;
+    private final Counter closed;
+
+    public SlowConsumerMetrics(WebSocketHandler delegate, MeterRegistry meterRegistry) {
+        super(delegate);
+        this.evicted = meterRegistry.counter("websocket.sessions.evicted");
+        this.closed = meterRegistry.counter("websocket.sessions.closed");
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        closed.increment();
+        if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+            evicted.increment();
+        }
+        super.afterConnectionClosed(session, closeStatus);
+    }
+}
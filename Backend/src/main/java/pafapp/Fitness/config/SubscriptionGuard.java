@@ -0,0 +1,30 @@
+package pafapp.Fitness.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+// Clients may only subscribe to their own user destinations (/user/queue/...) and to public /topic
+// destinations. Raw /queue/... names (the per-session queues user destinations resolve to) and
+// /user/{someoneElse}/... are refused, so a socket cannot read another user's notifications.
+public class SubscriptionGuard implements ChannelInterceptor {
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if (accessor.getCommand() != StompCommand.SUBSCRIBE) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        boolean ownQueue = destination != null && destination.startsWith("/user/queue/") && accessor.getUser() != null;
+        boolean publicTopic = destination != null && destination.startsWith("/topic/")
+                && !destination.startsWith("/topic/simp-") && !destination.startsWith("/topic/unresolved-");
+        if (!ownQueue && !publicTopic) {
+            throw new MessageDeliveryException(message, "Subscription to " + destination + " is not allowed");
+        }
+        return message;
+    }
+}
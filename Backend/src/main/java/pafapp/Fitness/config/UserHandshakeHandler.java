@@ -0,0 +1,45 @@
+package pafapp.Fitness.config;
+
+import java.security.Principal;
+import java.util.Map;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import jakarta.servlet.http.HttpSession;
+import pafapp.Fitness.Model.User;
+import pafapp.Fitness.repository.UserRepository;
+
+// Names the WebSocket session after the logged-in user's id, resolved the same way as /users/me
+// (OAuth2 login by email, otherwise the "userId" set on the HTTP session at credentials login).
+// convertAndSendToUser(userId, ...) then reaches that user's sessions; anonymous sockets get no user.
+public class UserHandshakeHandler extends DefaultHandshakeHandler {
+
+    private final UserRepository userRepository;
+
+    public UserHandshakeHandler(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler,
+            Map<String, Object> attributes) {
+        String userId = null;
+        if (request.getPrincipal() instanceof OAuth2AuthenticationToken token && token.isAuthenticated()) {
+            User user = userRepository.findByEmail(token.getPrincipal().getAttribute("email"));
+            userId = user != null ? user.getId() : null;
+        }
+        if (userId == null && request instanceof ServletServerHttpRequest servletRequest) {
+            HttpSession session = servletRequest.getServletRequest().getSession(false);
+            userId = session != null ? (String) session.getAttribute("userId") : null;
+        }
+        if (userId == null) {
+            return null;
+        }
+        String name = userId;
+        return () -> name;
+    }
+}
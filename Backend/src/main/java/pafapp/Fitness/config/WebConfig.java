@@ -1,17 +1,73 @@
 package pafapp.Fitness.config;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import jakarta.persistence.EntityManagerFactory;
+import pafapp.Fitness.Service.ImageDerivativeService;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+@Autowired
+private ImageDerivativeService imageDerivativeService;
+
+@Autowired
+private EntityManagerFactory entityManagerFactory;
+
+@Value("${media.storage-dir:uploads/media}")
+private String mediaStorageDir;
+
+// Open-in-view, registered here instead of by Boot (spring.jpa.open-in-view=false) so /stream/** can
+// be left out: an SSE request stays async for up to sse.timeout, and an EntityManager bound to it would
+// hold its JDBC connection, and a BoundedDataSource permit, for that whole time
+@Override
+public void addInterceptors(InterceptorRegistry registry) {
+    OpenEntityManagerInViewInterceptor openInView = new OpenEntityManagerInViewInterceptor();
+    openInView.setEntityManagerFactory(entityManagerFactory);
+    registry.addWebRequestInterceptor(openInView).excludePathPatterns("/stream/**");
+}
+
 @Override
 public void addResourceHandlers(ResourceHandlerRegistry registry) {
+    // Media files are named by content hash, so a URL never changes content:
+    // cache for a year, and use the file name as a strong ETag for If-None-Match 304s.
+    // (A ?w= request answered with the original, because its thumbnail is not ready yet, is no-cache.)
+    // Range requests are handled by the resource handler itself.
+    registry
+        .addResourceHandler("/uploads/media/**")
+        .addResourceLocations("file:" + mediaStorageDir + "/")
+        .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+        .setEtagGenerator(WebConfig::contentHashEtag)
+        // No resolver cache: it keys on the path only and would ignore ?w=
+        .resourceChain(false)
+        .addResolver(new DerivativeResourceResolver(imageDerivativeService))
+        .addResolver(new PathResourceResolver());
+
+    // Legacy timestamp-named uploads can be overwritten, so they are only revalidated by Last-Modified
     registry
         .addResourceHandler("/uploads/**")
-        .addResourceLocations("file:uploads/");
+        .addResourceLocations("file:uploads/")
+        .setCacheControl(CacheControl.noCache());
+}
+
+private static String contentHashEtag(Resource resource) {
+    String filename = resource.getFilename();
+    if (filename == null) {
+        return null;
+    }
+    int dot = filename.lastIndexOf('.');
+    return "\"" + (dot < 0 ? filename : filename.substring(0, dot)) + "\"";
 }
 
 }
@@ -45,7 +45,11 @@ public class WebSecurityConfig {
                     "/notifications/**",
                     "/error",
                     "/upload/**",                 // ✅ Allow file uploads
-                    "/uploads/**"
+                    "/uploads/**",
+                    "/media/**",
+                    "/search",
+                    "/stream/**",
+                    "/actuator/health"
                 ).permitAll()
                 .anyRequest().authenticated()
             )
@@ -0,0 +1,27 @@
+package pafapp.Fitness.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Backlog of the STOMP channel executors: frames waiting for a thread to write them to sockets
+// (outbound) and client frames waiting to be handled (inbound).
+@Component
+public class WebSocketChannelGauges {
+
+    public WebSocketChannelGauges(
+            MeterRegistry meterRegistry,
+            @Qualifier("clientInboundChannelExecutor") ThreadPoolTaskExecutor inboundExecutor,
+            @Qualifier("clientOutboundChannelExecutor") ThreadPoolTaskExecutor outboundExecutor
+    ) {
+        Gauge.builder("websocket.outbound.queue.depth", outboundExecutor,
+                executor -> executor.getThreadPoolExecutor().getQueue().size()).register(meterRegistry);
+        Gauge.builder("websocket.outbound.threads.active", outboundExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("websocket.inbound.queue.depth", inboundExecutor,
+                executor -> executor.getThreadPoolExecutor().getQueue().size()).register(meterRegistry);
+    }
+}
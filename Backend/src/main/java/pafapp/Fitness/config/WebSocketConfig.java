@@ -1,26 +1,156 @@
 package pafapp.Fitness.config;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import pafapp.Fitness.repository.UserRepository;
 
+// STOMP over WebSocket/SockJS. websocket.broker.mode picks the delivery layer:
+//  - simple: in-process broker, one node only, with STOMP heartbeats
+//  - relay:  every node relays /topic and /queue to an external STOMP broker (RabbitMQ, Artemis),
+//            and user destinations are resolved cluster-wide through the broker, so sockets can be
+//            spread over several app nodes
+// Notifications go out on one user destination, /user/queue/notifications, as JSON arrays batched per
+// user by NotificationPushBatcher; the session's user is set at handshake (UserHandshakeHandler) and
+// SubscriptionGuard keeps clients off other users' queues.
+// Per-session send buffer and time limits close slow consumers instead of letting them pile up memory.
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    public enum BrokerMode {
+        SIMPLE,
+        RELAY
+    }
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final TaskScheduler brokerTaskScheduler;
+
+    @Value("${websocket.broker.mode:SIMPLE}")
+    private BrokerMode brokerMode;
+
+    @Value("${websocket.heartbeat:PT10S}")
+    private Duration heartbeat;
+
+    @Value("${websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${websocket.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${websocket.session.send-time-limit:PT10S}")
+    private Duration sendTimeLimit;
+
+    @Value("${websocket.session.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.session.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${websocket.session.time-to-first-message:PT30S}")
+    private Duration timeToFirstMessage;
+
+    @Value("${websocket.inbound.pool-size:8}")
+    private int inboundPoolSize;
+
+    @Value("${websocket.outbound.pool-size:16}")
+    private int outboundPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:100000}")
+    private int outboundQueueCapacity;
+
+    public WebSocketConfig(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            // Defined by @EnableWebSocketMessageBroker itself, hence lazy
+            @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler brokerTaskScheduler
+    ) {
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.brokerTaskScheduler = brokerTaskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue"); // ✅ Include both public & private
+        long heartbeatMillis = heartbeat.toMillis();
+        if (brokerMode == BrokerMode.RELAY) {
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setVirtualHost(relayVirtualHost.isBlank() ? null : relayVirtualHost)
+                    .setSystemHeartbeatSendInterval(heartbeatMillis)
+                    .setSystemHeartbeatReceiveInterval(heartbeatMillis)
+                    // Lets a node deliver to a user whose socket lives on another node
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else {
+            config.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(new long[] { heartbeatMillis, heartbeatMillis })
+                    .setTaskScheduler(brokerTaskScheduler);
+        }
         config.setApplicationDestinationPrefixes("/app"); // For @MessageMapping methods
-        config.setUserDestinationPrefix("/user"); // ✅ Enables /user/queue support
+        config.setUserDestinationPrefix("/user"); // /user/queue/... resolves to the session's own queue
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws") // Client connects to ws://localhost:8080/ws
+                .setHandshakeHandler(new UserHandshakeHandler(userRepository))
                 .setAllowedOriginPatterns("*")
-                .withSockJS(); // ✅ SockJS fallback
+                .withSockJS() // ✅ SockJS fallback
+                .setHeartbeatTime(heartbeat.toMillis());
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session whose unsent frames exceed either limit is closed (SESSION_NOT_RELIABLE)
+        registration.setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .setTimeToFirstMessage((int) timeToFirstMessage.toMillis())
+                .addDecoratorFactory(handler -> new SlowConsumerMetrics(handler, meterRegistry));
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new SubscriptionGuard());
+        registration.taskExecutor().corePoolSize(inboundPoolSize).maxPoolSize(inboundPoolSize);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Fixed pool with a deep queue. While a session is mid-send, frames for it are buffered rather than
+        // waited on, so a slow socket holds at most one thread, and only up to its send time limit
+        registration.interceptors(new OutboundMessageMetrics(meterRegistry));
+        registration.taskExecutor()
+                .corePoolSize(outboundPoolSize)
+                .maxPoolSize(outboundPoolSize)
+                .queueCapacity(outboundQueueCapacity);
     }
 }
@@ -0,0 +1,47 @@
+package pafapp.Fitness.jobs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// One-off copy of the legacy user_followed_users element collection into the follows edge table,
+// followed by a recount of both counters into user_stats (the old code incremented them on the wrong side).
+// Enable with follows.migration.enabled=true; INSERT IGNORE makes it safe to re-run.
+@Component
+@ConditionalOnProperty(name = "follows.migration.enabled", havingValue = "true")
+public class FollowMigrationJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FollowMigrationJob.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public FollowMigrationJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int copied = jdbcTemplate.update(
+                    "INSERT IGNORE INTO follows (follower_id, followee_id, created_at) "
+                            + "SELECT user_id, followed_users, NOW(6) FROM user_followed_users "
+                            + "WHERE user_id <> followed_users");
+            int recounted = jdbcTemplate.update(
+                    "INSERT INTO user_stats (user_id, post_count, followers_count, following_count) "
+                            + "SELECT u.id, "
+                            + "(SELECT COUNT(*) FROM posts p WHERE p.user_id = u.id), "
+                            + "(SELECT COUNT(*) FROM follows f WHERE f.followee_id = u.id), "
+                            + "(SELECT COUNT(*) FROM follows f WHERE f.follower_id = u.id) FROM users u "
+                            + "ON DUPLICATE KEY UPDATE post_count = VALUES(post_count), "
+                            + "followers_count = VALUES(followers_count), following_count = VALUES(following_count)");
+            log.info("Follow migration finished: {} edges copied, {} users recounted", copied, recounted);
+        });
+    }
+}
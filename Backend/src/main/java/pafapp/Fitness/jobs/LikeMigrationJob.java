@@ -0,0 +1,49 @@
+package pafapp.Fitness.jobs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import pafapp.Fitness.Model.Post;
+
+// One-off copy of the legacy post_liked_by element collection into post_likes,
+// followed by a recount that also repairs like counts inflated by the old double increment.
+// Enable with likes.migration.enabled=true; INSERT IGNORE makes it safe to re-run.
+@Component
+@ConditionalOnProperty(name = "likes.migration.enabled", havingValue = "true")
+public class LikeMigrationJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LikeMigrationJob.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public LikeMigrationJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int copied = jdbcTemplate.update(
+                    "INSERT IGNORE INTO post_likes (post_id, user_id, created_at) "
+                            + "SELECT post_id, liked_by, NOW() FROM post_liked_by");
+            int recounted = jdbcTemplate.update(
+                    "UPDATE posts p SET p.like_count = "
+                            + "(SELECT COUNT(*) FROM post_likes l WHERE l.post_id = p.id)");
+            log.info("Like migration finished: {} likes copied, {} posts recounted", copied, recounted);
+        });
+        // The recount bypasses Hibernate, so drop any posts already in the second-level cache
+        entityManagerFactory.getCache().evict(Post.class);
+    }
+}
@@ -0,0 +1,112 @@
+package pafapp.Fitness.jobs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import pafapp.Fitness.Service.MediaStoreService;
+import pafapp.Fitness.repository.CommentRepository;
+import pafapp.Fitness.repository.PostRepository;
+import pafapp.Fitness.repository.UserRepository;
+
+// One-off rewrite of legacy base64 avatars and post videos into media store references.
+// Enable with media.migration.enabled=true; safe to re-run, it only touches rows still holding data URLs.
+@Component
+@ConditionalOnProperty(name = "media.migration.enabled", havingValue = "true")
+public class MediaMigrationJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaMigrationJob.class);
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final MediaStoreService mediaStoreService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int videoBatchSize;
+
+    public MediaMigrationJob(
+            UserRepository userRepository,
+            PostRepository postRepository,
+            CommentRepository commentRepository,
+            MediaStoreService mediaStoreService,
+            TransactionTemplate transactionTemplate,
+            @Value("${media.migration.batch-size:100}") int batchSize,
+            @Value("${media.migration.video-batch-size:5}") int videoBatchSize
+    ) {
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.mediaStoreService = mediaStoreService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.videoBatchSize = videoBatchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int users = migrate("users.profile_image", "", batchSize,
+                userRepository::findInlineProfileImagesAfter, userRepository::updateProfileImage);
+        int posts = migrate("posts.user_profile", 0L, batchSize,
+                postRepository::findInlineUserProfilesAfter, postRepository::updateUserProfile);
+        int comments = migrate("comments.comment_by_profile", 0L, batchSize,
+                commentRepository::findInlineProfilesAfter, commentRepository::updateCommentByProfile);
+        // Each inline video can be tens of MB, so they are walked a few at a time
+        int videos = migrate("posts.video", 0L, videoBatchSize,
+                postRepository::findInlineVideosAfter, postRepository::updateVideo);
+        log.info("Media migration finished: {} users, {} posts, {} comments, {} videos rewritten",
+                users, posts, comments, videos);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K> int migrate(
+            String column,
+            K start,
+            int pageSize,
+            BiFunction<K, Pageable, List<Object[]>> fetchBatch,
+            BiFunction<Collection<K>, String, Integer> updateBatch
+    ) {
+        K after = start;
+        int migrated = 0;
+
+        while (true) {
+            List<Object[]> rows = fetchBatch.apply(after, PageRequest.of(0, pageSize));
+            if (rows.isEmpty()) {
+                return migrated;
+            }
+
+            // Rows sharing an avatar collapse to one file and one UPDATE ... WHERE id IN (...)
+            Map<String, List<K>> idsByReference = new HashMap<>();
+            for (Object[] row : rows) {
+                K id = (K) row[0];
+                try {
+                    String reference = mediaStoreService.toReference((String) row[1]);
+                    idsByReference.computeIfAbsent(reference, r -> new ArrayList<>()).add(id);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping {} row {}: {}", column, id, e.getMessage());
+                }
+            }
+
+            transactionTemplate.executeWithoutResult(status ->
+                    idsByReference.forEach((reference, ids) -> updateBatch.apply(ids, reference)));
+
+            migrated += idsByReference.values().stream().mapToInt(List::size).sum();
+            after = (K) rows.get(rows.size() - 1)[0];
+            log.info("Media migration: {} rows of {} rewritten so far", migrated, column);
+        }
+    }
+}
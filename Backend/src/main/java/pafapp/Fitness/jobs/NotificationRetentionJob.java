@@ -0,0 +1,160 @@
+package pafapp.Fitness.jobs;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import pafapp.Fitness.repository.NotificationRepository;
+
+// Nightly purge of read notifications older than notifications.retention.days, in small batches so
+// the inbox index is never locked for long. ARCHIVE mode copies each batch into notifications_archive
+// before deleting it. Unread rows are never touched; the run ends by reconciling the unread counters.
+// The reconcile walks users in id order in batches and only rewrites counters that drifted, each with a
+// compare-and-set against the count it read, so an increment committed meanwhile is never overwritten
+// (that counter is left for the next run).
+@Component
+@ConditionalOnProperty(name = "notifications.retention.enabled", havingValue = "true", matchIfMissing = true)
+public class NotificationRetentionJob {
+
+    public enum Mode { DELETE, ARCHIVE }
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionJob.class);
+
+    // One statement, so the recount and the stored counter come from the same snapshot (non-locking read)
+    private static final String UNREAD_SQL = "SELECT u.id, "
+            + "(SELECT COUNT(*) FROM notifications n WHERE n.recipient_id = u.id AND n.is_read = false) AS unread, "
+            + "c.unread AS stored "
+            + "FROM users u LEFT JOIN notification_counters c ON c.user_id = u.id "
+            + "WHERE u.id > ? ORDER BY u.id LIMIT ?";
+
+    private static final String REPAIR_SQL = "UPDATE notification_counters SET unread = ? WHERE user_id = ? AND unread = ?";
+
+    private static final String CREATE_SQL = "INSERT IGNORE INTO notification_counters (user_id, unread) VALUES (?, ?)";
+
+    private final NotificationRepository notificationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int batchSize;
+    private final Mode mode;
+
+    public NotificationRetentionJob(
+            NotificationRepository notificationRepository,
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedJdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${notifications.retention.days:90}") int retentionDays,
+            @Value("${notifications.retention.batch-size:1000}") int batchSize,
+            @Value("${notifications.retention.mode:DELETE}") Mode mode
+    ) {
+        this.notificationRepository = notificationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.mode = mode;
+    }
+
+    @Scheduled(cron = "${notifications.retention.cron:0 30 3 * * *}")
+    public void run() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        if (mode == Mode.ARCHIVE) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS notifications_archive LIKE notifications");
+        }
+
+        long purged = 0;
+        List<String> ids;
+        do {
+            ids = notificationRepository.findReadOlderThan(cutoff, PageRequest.of(0, batchSize));
+            if (!ids.isEmpty()) {
+                purged += purgeBatch(ids);
+            }
+        } while (ids.size() == batchSize);
+
+        reconcileCounters();
+        log.info("Notification retention finished: {} read notifications older than {} {}",
+                purged, cutoff, mode == Mode.ARCHIVE ? "archived" : "deleted");
+    }
+
+    private int purgeBatch(List<String> ids) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        Integer deleted = transactionTemplate.execute(status -> {
+            if (mode == Mode.ARCHIVE) {
+                namedJdbcTemplate.update(
+                        "INSERT IGNORE INTO notifications_archive SELECT * FROM notifications WHERE id IN (:ids)", params);
+            }
+            // is_read is re-checked so a row re-opened by a new event since the select survives
+            return namedJdbcTemplate.update(
+                    "DELETE FROM notifications WHERE id IN (:ids) AND is_read = true", params);
+        });
+        return deleted == null ? 0 : deleted;
+    }
+
+    private void reconcileCounters() {
+        String after = "";
+        long users = 0;
+        long repaired = 0;
+
+        while (true) {
+            List<String> ids = new ArrayList<>();
+            List<Object[]> updates = new ArrayList<>();
+            List<Object[]> inserts = new ArrayList<>();
+            jdbcTemplate.query(UNREAD_SQL, rs -> {
+                String id = rs.getString("id");
+                ids.add(id);
+                int unread = rs.getInt("unread");
+                int stored = rs.getInt("stored");
+                if (rs.wasNull()) {
+                    if (unread > 0) {
+                        inserts.add(new Object[] { id, unread });
+                    }
+                } else if (stored != unread) {
+                    // Includes zeroing a counter whose user has no unread rows left
+                    updates.add(new Object[] { unread, id, stored });
+                }
+            }, after, batchSize);
+
+            if (!updates.isEmpty() || !inserts.isEmpty()) {
+                // A short transaction per batch; a row changed since the read fails its compare and is skipped
+                int[] written = transactionTemplate.execute(status -> {
+                    int[] counts = new int[2];
+                    for (int n : jdbcTemplate.batchUpdate(REPAIR_SQL, updates)) {
+                        counts[0] += n > 0 ? 1 : 0;
+                    }
+                    // Rewritten multi-row INSERTs report SUCCESS_NO_INFO (-2) per row rather than 1
+                    for (int n : jdbcTemplate.batchUpdate(CREATE_SQL, inserts)) {
+                        counts[1] += n != 0 ? 1 : 0;
+                    }
+                    return counts;
+                });
+                repaired += written[0] + written[1];
+            }
+            users += ids.size();
+
+            if (ids.size() < batchSize) {
+                break;
+            }
+            after = ids.get(ids.size() - 1);
+        }
+
+        if (repaired > 0) {
+            log.warn("Notification counter reconciliation: {} of {} users drifted", repaired, users);
+        } else {
+            log.info("Notification counter reconciliation: {} users checked, no drift", users);
+        }
+    }
+}
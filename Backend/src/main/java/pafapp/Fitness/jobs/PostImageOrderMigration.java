@@ -0,0 +1,66 @@
+package pafapp.Fitness.jobs;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Numbering of post_images.image_order for rows written before the column existed. ddl-auto=update adds
+// it as INT NOT NULL, so every pre-existing row gets 0 and a multi-image post would load with all its
+// images on one list index (and a later save would write the collapsed list back). Runs while the
+// context starts, after the schema update (it depends on the entityManagerFactory bean) and before Tomcat
+// accepts requests or any runner or scheduled job reads a post; a no-op once every post is numbered.
+// The legacy table has no key, so a temporary AUTO_INCREMENT column gives each row one: InnoDB fills it
+// in the hidden row id order, which is insertion order, and a post with the same image twice still gets
+// two positions.
+@Component
+@DependsOn("entityManagerFactory")
+public class PostImageOrderMigration implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PostImageOrderMigration.class);
+
+    private static final String ROW_ID = "legacy_row_id";
+
+    private static final String UNORDERED_SQL = "SELECT COUNT(*) FROM (SELECT post_id FROM post_images "
+            + "GROUP BY post_id HAVING COUNT(*) > COUNT(DISTINCT image_order)) t";
+
+    private static final String RENUMBER_SQL = "UPDATE post_images pi JOIN ("
+            + "SELECT " + ROW_ID + ", ROW_NUMBER() OVER (PARTITION BY post_id ORDER BY " + ROW_ID + ") - 1 AS position "
+            + "FROM post_images) ranked ON ranked." + ROW_ID + " = pi." + ROW_ID + " "
+            + "SET pi.image_order = ranked.position";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostImageOrderMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        // Left behind by a run that stopped half-way
+        dropRowId();
+
+        Integer unordered = jdbcTemplate.queryForObject(UNORDERED_SQL, Integer.class);
+        if (unordered == null || unordered == 0) {
+            log.info("Post image order migration: nothing to renumber");
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE post_images ADD COLUMN " + ROW_ID + " BIGINT NOT NULL AUTO_INCREMENT UNIQUE");
+        int renumbered = jdbcTemplate.update(RENUMBER_SQL);
+        dropRowId();
+        log.info("Post image order migration: renumbered {} rows across {} posts", renumbered, unordered);
+    }
+
+    private void dropRowId() {
+        List<String> columns = jdbcTemplate.queryForList("SELECT column_name FROM information_schema.columns "
+                + "WHERE table_schema = DATABASE() AND table_name = 'post_images' AND column_name = ?",
+                String.class, ROW_ID);
+        if (!columns.isEmpty()) {
+            jdbcTemplate.execute("ALTER TABLE post_images DROP COLUMN " + ROW_ID);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package pafapp.Fitness.jobs;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import pafapp.Fitness.search.SearchDocument;
+import pafapp.Fitness.search.SearchIndex;
+
+// Rebuilds the search index at startup from one streaming pass over posts, comments and users.
+// Rows are read through forward-only result sets (MySQL streams them with fetch size Integer.MIN_VALUE),
+// so memory stays flat however large the tables are. Searches keep using the previous index until
+// the rebuild commits. Disable with search.rebuild-on-startup=false.
+@Component
+@ConditionalOnProperty(name = "search.rebuild-on-startup", havingValue = "true", matchIfMissing = true)
+public class SearchIndexRebuildJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexRebuildJob.class);
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final SearchIndex searchIndex;
+
+    public SearchIndexRebuildJob(DataSource dataSource, SearchIndex searchIndex) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long started = System.currentTimeMillis();
+        // flatMap opens each scan only once the previous one is drained and closes it afterwards,
+        // so a single streaming connection is in use at any time
+        Stream<Supplier<Stream<SearchDocument>>> scans = Stream.of(
+                () -> streamingJdbcTemplate.queryForStream(
+                        "SELECT id, title, description FROM posts",
+                        (rs, i) -> new SearchDocument(SearchDocument.POST, rs.getString("id"), rs.getLong("id"),
+                                rs.getString("title"), rs.getString("description"))),
+                () -> streamingJdbcTemplate.queryForStream(
+                        "SELECT id, post_id, content FROM comments",
+                        (rs, i) -> new SearchDocument(SearchDocument.COMMENT, rs.getString("id"), rs.getLong("post_id"),
+                                null, rs.getString("content"))),
+                () -> streamingJdbcTemplate.queryForStream(
+                        "SELECT id, name FROM users",
+                        (rs, i) -> new SearchDocument(SearchDocument.USER, rs.getString("id"), null,
+                                rs.getString("name"), null)));
+        try (Stream<SearchDocument> documents = scans.flatMap(Supplier::get)) {
+            long indexed = searchIndex.rebuild(documents);
+            log.info("Search index rebuilt with {} documents in {} ms", indexed, System.currentTimeMillis() - started);
+        }
+    }
+}
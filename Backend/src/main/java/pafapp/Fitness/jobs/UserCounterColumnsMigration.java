@@ -0,0 +1,70 @@
+package pafapp.Fitness.jobs;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// users.followers_count / following_count moved to user_stats and are no longer mapped, but ddl-auto=update
+// never touches them: on existing databases they stay behind as INT NOT NULL without a default, and strict
+// mode then rejects every new user INSERT. Gives them DEFAULT 0 (metadata only, a no-op once set).
+// Dropping them is irreversible, so it only happens with users.counter-columns.drop=true and once every
+// user has a reconciled user_stats row; otherwise it is skipped and retried on the next start.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class UserCounterColumnsMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserCounterColumnsMigration.class);
+
+    private static final List<String> LEGACY_COLUMNS = List.of("followers_count", "following_count");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean drop;
+
+    public UserCounterColumnsMigration(
+            JdbcTemplate jdbcTemplate,
+            @Value("${users.counter-columns.drop:false}") boolean drop
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.drop = drop;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String column : LEGACY_COLUMNS) {
+            List<String> defaults = jdbcTemplate.queryForList(
+                    "SELECT COLUMN_DEFAULT FROM information_schema.columns "
+                            + "WHERE table_schema = DATABASE() AND table_name = 'users' AND column_name = ?",
+                    String.class, column);
+            if (defaults.isEmpty()) {
+                continue;
+            }
+            if (drop && statsReconciled()) {
+                // Values are not needed: user_stats is recounted from posts and follows
+                jdbcTemplate.execute("ALTER TABLE users DROP COLUMN " + column);
+                log.info("Dropped legacy column users.{}", column);
+            } else if (defaults.get(0) == null) {
+                jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN " + column + " SET DEFAULT 0");
+                log.info("Legacy column users.{} now defaults to 0", column);
+            }
+        }
+    }
+
+    private boolean statsReconciled() {
+        Integer missing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users u LEFT JOIN user_stats s ON s.user_id = u.id WHERE s.user_id IS NULL",
+                Integer.class);
+        if (missing != null && missing > 0) {
+            log.warn("Keeping legacy user counter columns: {} users have no user_stats row yet", missing);
+            return false;
+        }
+        return true;
+    }
+}
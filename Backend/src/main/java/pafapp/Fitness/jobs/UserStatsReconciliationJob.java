@@ -0,0 +1,124 @@
+package pafapp.Fitness.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Nightly recount of user_stats from posts and follows, walking users in id order in batches.
+// Only drifted rows are rewritten, each batch with one INSERT ... SELECT so the recount and the write
+// see the same snapshot. Drift is logged and counted in user_stats.reconcile.drift.
+// Also runs at startup while user_stats is still empty (first deploy).
+@Component
+@ConditionalOnProperty(name = "user-stats.reconcile.enabled", havingValue = "true", matchIfMissing = true)
+public class UserStatsReconciliationJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatsReconciliationJob.class);
+
+    private static final String ACTUAL_SQL = "SELECT u.id, "
+            + "(SELECT COUNT(*) FROM posts p WHERE p.user_id = u.id) AS posts, "
+            + "(SELECT COUNT(*) FROM follows f WHERE f.followee_id = u.id) AS followers, "
+            + "(SELECT COUNT(*) FROM follows f WHERE f.follower_id = u.id) AS following, "
+            + "COALESCE(s.post_count, 0) AS stored_posts, "
+            + "COALESCE(s.followers_count, 0) AS stored_followers, "
+            + "COALESCE(s.following_count, 0) AS stored_following, "
+            + "s.user_id IS NOT NULL AS has_row "
+            + "FROM users u LEFT JOIN user_stats s ON s.user_id = u.id "
+            + "WHERE u.id > ? ORDER BY u.id LIMIT ?";
+
+    private static final String REPAIR_SQL = "INSERT INTO user_stats (user_id, post_count, followers_count, following_count) "
+            + "SELECT u.id, "
+            + "(SELECT COUNT(*) FROM posts p WHERE p.user_id = u.id), "
+            + "(SELECT COUNT(*) FROM follows f WHERE f.followee_id = u.id), "
+            + "(SELECT COUNT(*) FROM follows f WHERE f.follower_id = u.id) "
+            + "FROM users u WHERE u.id IN (:ids) "
+            + "ON DUPLICATE KEY UPDATE post_count = VALUES(post_count), "
+            + "followers_count = VALUES(followers_count), following_count = VALUES(following_count)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter driftCounter;
+    private final int batchSize;
+
+    public UserStatsReconciliationJob(
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedJdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${user-stats.reconcile.batch-size:500}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.driftCounter = meterRegistry.counter("user_stats.reconcile.drift");
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_stats", Integer.class);
+        if (rows != null && rows == 0) {
+            reconcile();
+        }
+    }
+
+    @Scheduled(cron = "${user-stats.reconcile.cron:0 0 4 * * *}")
+    public void reconcile() {
+        String after = "";
+        long users = 0;
+        long drifted = 0;
+        long totalDrift = 0;
+
+        while (true) {
+            List<String> ids = new ArrayList<>();
+            List<String> driftedIds = new ArrayList<>();
+            long[] batchDrift = new long[1];
+            jdbcTemplate.query(ACTUAL_SQL, rs -> {
+                String id = rs.getString("id");
+                ids.add(id);
+                long drift = Math.abs(rs.getLong("posts") - rs.getLong("stored_posts"))
+                        + Math.abs(rs.getLong("followers") - rs.getLong("stored_followers"))
+                        + Math.abs(rs.getLong("following") - rs.getLong("stored_following"));
+                if (drift > 0 || !rs.getBoolean("has_row")) {
+                    driftedIds.add(id);
+                    batchDrift[0] += drift;
+                }
+            }, after, batchSize);
+
+            if (!driftedIds.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status ->
+                        namedJdbcTemplate.update(REPAIR_SQL, new MapSqlParameterSource("ids", driftedIds)));
+            }
+            users += ids.size();
+            drifted += driftedIds.size();
+            totalDrift += batchDrift[0];
+
+            if (ids.size() < batchSize) {
+                break;
+            }
+            after = ids.get(ids.size() - 1);
+        }
+
+        driftCounter.increment(totalDrift);
+        if (totalDrift > 0) {
+            log.warn("User stats reconciliation: {} of {} users drifted, total drift {}", drifted, users, totalDrift);
+        } else {
+            log.info("User stats reconciliation: {} users checked, no drift", users);
+        }
+    }
+}
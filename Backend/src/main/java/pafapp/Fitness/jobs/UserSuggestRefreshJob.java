@@ -0,0 +1,49 @@
+package pafapp.Fitness.jobs;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import pafapp.Fitness.cache.UserSuggestIndex;
+
+// Loads the typeahead index at startup and rebuilds it every users.suggest.refresh-interval, which also
+// brings follower counts (the ranking) up to date. Users are read in one streaming pass.
+@Component
+public class UserSuggestRefreshJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSuggestRefreshJob.class);
+
+    private static final String USERS_SQL = "SELECT u.id, u.name, u.email, COALESCE(s.followers_count, 0) AS followers "
+            + "FROM users u LEFT JOIN user_stats s ON s.user_id = u.id";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final UserSuggestIndex userSuggestIndex;
+
+    public UserSuggestRefreshJob(DataSource dataSource, UserSuggestIndex userSuggestIndex) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.userSuggestIndex = userSuggestIndex;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${users.suggest.refresh-interval:PT10M}",
+            initialDelayString = "${users.suggest.refresh-interval:PT10M}")
+    public void refresh() {
+        long started = System.currentTimeMillis();
+        // The query only runs once the index has captured its overlay, so the scan sees every captured write
+        int users = userSuggestIndex.rebuild(() -> streamingJdbcTemplate.queryForStream(USERS_SQL,
+                (rs, i) -> new UserSuggestIndex.Entry(rs.getString("id"), rs.getString("name"),
+                        rs.getString("email"), rs.getInt("followers"))));
+        log.info("User suggest index rebuilt with {} users in {} ms", users, System.currentTimeMillis() - started);
+    }
+}
@@ -1,12 +1,36 @@
 package pafapp.Fitness.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import pafapp.Fitness.Model.Comment;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByPostId(Long postId);
-}
+    List<Comment> findByPostIdOrderByCreatedAtAsc(Long postId);
+
+    // [postId, count] rows for a whole feed page in one round trip
+    @Query("SELECT c.post.id, COUNT(c) FROM Comment c WHERE c.post.id IN :postIds GROUP BY c.post.id")
+    List<Object[]> countByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    // Latest :perPost comments of every post in :postIds (MySQL 8 window function)
+    @Query(value = "SELECT r.id, r.content, r.comment_by, r.comment_by_profile, r.comment_by_id, r.created_at, r.post_id, r.version "
+            + "FROM (SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.post_id ORDER BY c.created_at DESC, c.id DESC) AS rn "
+            + "FROM comments c WHERE c.post_id IN (:postIds)) r "
+            + "WHERE r.rn <= :perPost ORDER BY r.post_id, r.rn", nativeQuery = true)
+    List<Comment> findRecentByPostIds(@Param("postIds") Collection<Long> postIds, @Param("perPost") int perPost);
 
+    // [id, commentByProfile] rows still holding inline data URLs, walked in id order by the media migration
+    @Query("SELECT c.id, c.commentByProfile FROM Comment c WHERE c.id > :afterId AND c.commentByProfile LIKE 'data:%' ORDER BY c.id")
+    List<Object[]> findInlineProfilesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.commentByProfile = :reference WHERE c.id IN :ids")
+    int updateCommentByProfile(@Param("ids") Collection<Long> ids, @Param("reference") String reference);
+}
@@ -0,0 +1,62 @@
+package pafapp.Fitness.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
+import pafapp.Fitness.Model.Follow;
+
+public interface FollowRepository extends JpaRepository<Follow, Long> {
+
+    // Returns 1 when the edge was created, 0 when it already existed
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "follows"))
+    @Query(value = "INSERT IGNORE INTO follows (follower_id, followee_id, created_at) VALUES (:followerId, :followeeId, NOW(6))", nativeQuery = true)
+    int insertIfAbsent(@Param("followerId") String followerId, @Param("followeeId") String followeeId);
+
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.followerId = :followerId AND f.followeeId = :followeeId")
+    int deleteEdge(@Param("followerId") String followerId, @Param("followeeId") String followeeId);
+
+    boolean existsByFollowerIdAndFolloweeId(String followerId, String followeeId);
+
+    // Follower ids only, paged by edge id, for timeline fan-out
+    @Query("SELECT f.id, f.followerId FROM Follow f WHERE f.followeeId = :userId AND f.id > :afterId ORDER BY f.id")
+    List<Object[]> findFollowerIdsAfter(@Param("userId") String userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT f.followeeId FROM Follow f WHERE f.followerId = :userId")
+    List<String> findFolloweeIds(@Param("userId") String userId);
+
+    // Followees above the fan-out threshold; their posts are merged in at read time
+    @Query("SELECT f.followeeId FROM Follow f, UserStats s WHERE s.userId = f.followeeId "
+            + "AND f.followerId = :userId AND s.followersCount > :threshold")
+    List<String> findCelebrityFolloweeIds(@Param("userId") String userId, @Param("threshold") int threshold);
+
+    // Followers of a user, newest first
+    @Query("SELECT f FROM Follow f WHERE f.followeeId = :userId ORDER BY f.createdAt DESC, f.id DESC")
+    List<Follow> findFollowersFirstPage(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT f FROM Follow f WHERE f.followeeId = :userId "
+            + "AND (f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)) "
+            + "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Follow> findFollowersBefore(@Param("userId") String userId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id, Pageable pageable);
+
+    // Users a user follows, newest first
+    @Query("SELECT f FROM Follow f WHERE f.followerId = :userId ORDER BY f.createdAt DESC, f.id DESC")
+    List<Follow> findFollowingFirstPage(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT f FROM Follow f WHERE f.followerId = :userId "
+            + "AND (f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)) "
+            + "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Follow> findFollowingBefore(@Param("userId") String userId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id, Pageable pageable);
+}
@@ -0,0 +1,24 @@
+package pafapp.Fitness.repository;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import pafapp.Fitness.Model.NotificationCounter;
+
+@Repository
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, String> {
+
+    // Atomic upsert-add, never going below zero. The native space hint keeps Hibernate from
+    // clearing the whole second-level cache after each native write.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "notification_counters"))
+    @Query(value = "INSERT INTO notification_counters (user_id, unread) VALUES (:userId, GREATEST(:delta, 0)) "
+            + "ON DUPLICATE KEY UPDATE unread = GREATEST(unread + :delta, 0)", nativeQuery = true)
+    int adjustUnread(@Param("userId") String userId, @Param("delta") int delta);
+}
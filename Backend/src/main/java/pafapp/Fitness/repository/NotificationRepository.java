@@ -1,13 +1,54 @@
 package pafapp.Fitness.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
 import pafapp.Fitness.Model.Notification;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, String> {
-    List<Notification> findByRecipientIdOrderByTimestampDesc(String recipientId);
+    // Inbox pages, newest first, served from idx_notifications_recipient_ts
+    @Query("SELECT n FROM Notification n WHERE n.recipientId = :recipientId ORDER BY n.timestamp DESC, n.id DESC")
+    List<Notification> findInboxFirstPage(@Param("recipientId") String recipientId, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.recipientId = :recipientId "
+            + "AND (n.timestamp < :timestamp OR (n.timestamp = :timestamp AND n.id < :id)) "
+            + "ORDER BY n.timestamp DESC, n.id DESC")
+    List<Notification> findInboxPageBefore(@Param("recipientId") String recipientId,
+            @Param("timestamp") LocalDateTime timestamp, @Param("id") String id, Pageable pageable);
+
+    // [id, isRead] of the rows that already exist among ids (used to keep unread counters exact).
+    // SELECT ... FOR UPDATE: a concurrent mark-read waits for the caller's transaction instead of
+    // flipping a row between this read and the caller's upsert
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n.id, n.isRead FROM Notification n WHERE n.id IN :ids")
+    List<Object[]> findReadStates(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT n.recipientId FROM Notification n WHERE n.id = :id")
+    String findRecipientIdById(@Param("id") String id);
+
+    // Single-statement mark-read; returns how many rows flipped from unread to read
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.recipientId = :recipientId AND n.isRead = false")
+    int markAllRead(@Param("recipientId") String recipientId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true "
+            + "WHERE n.recipientId = :recipientId AND n.id IN :ids AND n.isRead = false")
+    int markRead(@Param("recipientId") String recipientId, @Param("ids") Collection<String> ids);
+
+    // Retention: ids of read notifications older than the cutoff, oldest first
+    @Query("SELECT n.id FROM Notification n WHERE n.isRead = true AND n.timestamp < :cutoff ORDER BY n.timestamp")
+    List<String> findReadOlderThan(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
 }
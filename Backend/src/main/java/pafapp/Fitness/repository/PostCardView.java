@@ -0,0 +1,18 @@
+package pafapp.Fitness.repository;
+
+import java.time.LocalDateTime;
+
+// Closed projection for feed cards: only these columns are selected, no entity is loaded.
+// Images are an element collection and are fetched separately for the whole page.
+public interface PostCardView {
+    Long getId();
+    String getTitle();
+    LocalDateTime getDate();
+    String getVideo();
+    String getDescription();
+    int getLikeCount();
+    long getViewCount();
+    String getUserId();
+    String getUsername();
+    String getUserProfile();
+}
@@ -0,0 +1,35 @@
+package pafapp.Fitness.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
+import pafapp.Fitness.Model.PostLike;
+
+public interface PostLikeRepository extends JpaRepository<PostLike, Long> {
+
+    // Returns 1 when the like was recorded, 0 when it already existed
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_likes"))
+    @Query(value = "INSERT IGNORE INTO post_likes (post_id, user_id, created_at) VALUES (:postId, :userId, NOW())", nativeQuery = true)
+    int insertIfAbsent(@Param("postId") Long postId, @Param("userId") String userId);
+
+    @Modifying
+    @Query("DELETE FROM PostLike l WHERE l.postId = :postId AND l.userId = :userId")
+    int deleteByPostIdAndUserId(@Param("postId") Long postId, @Param("userId") String userId);
+
+    // Which of the given posts the viewer has liked, answered from idx_post_likes_user_post
+    @Query("SELECT l.postId FROM PostLike l WHERE l.userId = :userId AND l.postId IN :postIds")
+    List<Long> findLikedPostIds(@Param("userId") String userId, @Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query("DELETE FROM PostLike l WHERE l.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+}
@@ -1,14 +1,74 @@
 package pafapp.Fitness.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import pafapp.Fitness.Model.Post;
 
 public interface PostRepository extends JpaRepository <Post, Long> {
 
-    List<Post> findByUserId(String userId);
-    int countByUserId(String userId);
+    String CARD_COLUMNS = "SELECT p.id AS id, p.title AS title, p.date AS date, p.video AS video, "
+            + "p.description AS description, p.likeCount AS likeCount, p.viewCount AS viewCount, "
+            + "p.userId AS userId, p.username AS username, p.userProfile AS userProfile FROM Post p ";
+
+    // Keyset feed pages, served straight off idx_posts_date_id
+    @Query(CARD_COLUMNS + "ORDER BY p.date DESC, p.id DESC")
+    List<PostCardView> findFeedCardsFirstPage(Pageable pageable);
+
+    @Query(CARD_COLUMNS + "WHERE p.date < :date OR (p.date = :date AND p.id < :id) ORDER BY p.date DESC, p.id DESC")
+    List<PostCardView> findFeedCardsBefore(@Param("date") LocalDateTime date, @Param("id") Long id, Pageable pageable);
+
+    @Query(CARD_COLUMNS + "WHERE p.id IN :ids")
+    List<PostCardView> findCardsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(CARD_COLUMNS + "WHERE p.userId = :userId ORDER BY p.date DESC, p.id DESC")
+    List<PostCardView> findCardsByUserId(@Param("userId") String userId);
+
+    @Query(CARD_COLUMNS + "WHERE p.id = :id")
+    Optional<PostCardView> findCardById(@Param("id") Long id);
+
+    // [postId, image] for a page of cards, one query, each post's images in upload order
+    @Query("SELECT p.id, i FROM Post p JOIN p.images i WHERE p.id IN :ids ORDER BY p.id, INDEX(i)")
+    List<Object[]> findImagesByPostIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s FROM Post p JOIN p.sharedBy s WHERE p.id = :id")
+    List<String> findSharedByById(@Param("id") Long id);
+
+    // Timeline building blocks: post ids of a set of authors, newest first, below an optional id
+    @Query("SELECT p.id FROM Post p WHERE p.userId IN :userIds ORDER BY p.id DESC")
+    List<Long> findIdsByUserIds(@Param("userIds") Collection<String> userIds, Pageable pageable);
+
+    @Query("SELECT p.id FROM Post p WHERE p.userId IN :userIds AND p.id < :beforeId ORDER BY p.id DESC")
+    List<Long> findIdsByUserIdsBefore(@Param("userIds") Collection<String> userIds, @Param("beforeId") Long beforeId,
+            Pageable pageable);
+
+    @Query("SELECT p.userId FROM Post p WHERE p.id = :id")
+    String findUserIdById(@Param("id") Long id);
+
+    @Query("SELECT p.likeCount FROM Post p WHERE p.id = :id")
+    Integer findLikeCountById(@Param("id") Long id);
+
+    // [id, userProfile] rows still holding inline data URLs, walked in id order by the media migration
+    @Query("SELECT p.id, p.userProfile FROM Post p WHERE p.id > :afterId AND p.userProfile LIKE 'data:%' ORDER BY p.id")
+    List<Object[]> findInlineUserProfilesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.userProfile = :reference WHERE p.id IN :ids")
+    int updateUserProfile(@Param("ids") Collection<Long> ids, @Param("reference") String reference);
+
+    @Query("SELECT p.id, p.video FROM Post p WHERE p.id > :afterId AND p.video LIKE 'data:%' ORDER BY p.id")
+    List<Object[]> findInlineVideosAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.video = :reference WHERE p.id IN :ids")
+    int updateVideo(@Param("ids") Collection<Long> ids, @Param("reference") String reference);
     
-}
\ No newline at end of file
+}
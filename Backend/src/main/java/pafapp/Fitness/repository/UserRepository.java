@@ -1,16 +1,44 @@
 package pafapp.Fitness.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import pafapp.Fitness.Model.User;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
     
+    // Resolves the signed-in OAuth user on /users/me, SSE connects and STOMP handshakes. Served from the
+    // query cache (the row itself then comes from the users region); any write to users invalidates it
+    // through the update timestamps
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     User findByEmail(String email);
 
-    
 
     boolean existsByEmail(String email);
+
+    // [id, name, profileImage] for UserSummaryCache misses
+    @Query("SELECT u.id, u.name, u.profileImage FROM User u WHERE u.id IN :ids")
+    List<Object[]> findSummariesByIds(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE u.id IN :ids")
+    long countByIds(@Param("ids") Collection<String> ids);
+
+    // [id, profileImage] rows still holding inline data URLs, walked in id order by the media migration
+    @Query("SELECT u.id, u.profileImage FROM User u WHERE u.id > :afterId AND u.profileImage LIKE 'data:%' ORDER BY u.id")
+    List<Object[]> findInlineProfileImagesAfter(@Param("afterId") String afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE User u SET u.profileImage = :reference WHERE u.id IN :ids")
+    int updateProfileImage(@Param("ids") Collection<String> ids, @Param("reference") String reference);
 }
@@ -0,0 +1,46 @@
+package pafapp.Fitness.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import pafapp.Fitness.Model.UserStats;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, String> {
+
+    // Atomic upsert-adds: a single statement, so concurrent follows/posts cannot lose updates
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_stats"))
+    @Query(value = "INSERT INTO user_stats (user_id, post_count, followers_count, following_count) "
+            + "VALUES (:userId, GREATEST(:delta, 0), 0, 0) "
+            + "ON DUPLICATE KEY UPDATE post_count = GREATEST(post_count + :delta, 0)", nativeQuery = true)
+    int adjustPostCount(@Param("userId") String userId, @Param("delta") int delta);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_stats"))
+    @Query(value = "INSERT INTO user_stats (user_id, post_count, followers_count, following_count) "
+            + "VALUES (:userId, 0, GREATEST(:delta, 0), 0) "
+            + "ON DUPLICATE KEY UPDATE followers_count = GREATEST(followers_count + :delta, 0)", nativeQuery = true)
+    int adjustFollowersCount(@Param("userId") String userId, @Param("delta") int delta);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_stats"))
+    @Query(value = "INSERT INTO user_stats (user_id, post_count, followers_count, following_count) "
+            + "VALUES (:userId, 0, 0, GREATEST(:delta, 0)) "
+            + "ON DUPLICATE KEY UPDATE following_count = GREATEST(following_count + :delta, 0)", nativeQuery = true)
+    int adjustFollowingCount(@Param("userId") String userId, @Param("delta") int delta);
+
+    @Query("SELECT s.followersCount FROM UserStats s WHERE s.userId = :userId")
+    Integer findFollowersCountById(@Param("userId") String userId);
+
+    List<UserStats> findByUserIdIn(Collection<String> userIds);
+}
@@ -0,0 +1,45 @@
+package pafapp.Fitness.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pafapp.Fitness.Model.Comment;
+import pafapp.Fitness.Model.Post;
+import pafapp.Fitness.Model.User;
+
+// One indexed row: a post (title + description), a comment (content, linked to its post) or a user (name).
+// uid = type:id is the document key, so re-indexing a row replaces its previous version.
+@Getter
+@AllArgsConstructor
+public class SearchDocument {
+
+    public static final String POST = "post";
+    public static final String COMMENT = "comment";
+    public static final String USER = "user";
+
+    private final String type;
+    private final String id;
+    private final Long postId; // comments only
+    private final String title;
+    private final String body;
+
+    public String uid() {
+        return uid(type, id);
+    }
+
+    public static String uid(String type, Object id) {
+        return type + ":" + id;
+    }
+
+    public static SearchDocument of(Post post) {
+        return new SearchDocument(POST, post.getId().toString(), post.getId(), post.getTitle(), post.getDescription());
+    }
+
+    public static SearchDocument of(Comment comment) {
+        return new SearchDocument(COMMENT, comment.getId().toString(), comment.getPost().getId(),
+                null, comment.getContent());
+    }
+
+    public static SearchDocument of(User user) {
+        return new SearchDocument(USER, user.getId(), null, user.getName(), null);
+    }
+}
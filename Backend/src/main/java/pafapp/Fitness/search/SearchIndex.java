@@ -0,0 +1,219 @@
+package pafapp.Fitness.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+// Embedded Lucene index on local disk (search.index.dir). A single IndexWriter takes incremental
+// updates; searchers come from a SearcherManager refreshed every search.index.refresh-interval, and the
+// writer commits every search.index.commit-interval and on shutdown. Lost updates (crash between commit
+// points) are repaired by the startup rebuild in SearchIndexRebuildJob.
+// The rebuild streams rows while live updates keep arriving, and a row the stream reaches late would
+// overwrite a newer live change with its older snapshot. Live changes made during a rebuild are therefore
+// journaled and re-applied, in order, on top of the streamed documents before the rebuild commits.
+@Component
+public class SearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndex.class);
+
+    public static final String UID = "uid";
+    public static final String TYPE = "type";
+    public static final String ID = "id";
+    public static final String POST_ID = "postId";
+    public static final String TITLE = "title";
+    public static final String BODY = "body";
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    // While a rebuild runs, searchers keep serving the previous snapshot
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Live changes are applied and journaled under this lock; the journal is non-null only during a rebuild
+    private final ReentrantLock liveLock = new ReentrantLock();
+    private List<IndexChange> journal;
+
+    @Autowired
+    public SearchIndex(@Value("${search.index.dir:search-index}") String dir) throws IOException {
+        this(FSDirectory.open(Path.of(dir)));
+    }
+
+    public SearchIndex(Directory directory) throws IOException {
+        this.directory = directory;
+        IndexWriterConfig config = new IndexWriterConfig(analyzer);
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        this.writer = new IndexWriter(directory, config);
+        this.searcherManager = new SearcherManager(writer, new SearcherFactory());
+    }
+
+    public Analyzer analyzer() {
+        return analyzer;
+    }
+
+    public void update(SearchDocument document) {
+        Document lucene = toLucene(document);
+        applyLive(() -> writer.updateDocument(new Term(UID, document.uid()), lucene));
+    }
+
+    public void delete(String uid) {
+        applyLive(() -> writer.deleteDocuments(new Term(UID, uid)));
+    }
+
+    // A deleted post takes its comments with it
+    public void deletePost(Long postId) {
+        applyLive(() -> writer.deleteDocuments(new Term(UID, SearchDocument.uid(SearchDocument.POST, postId)),
+                new Term(POST_ID, postId.toString())));
+    }
+
+    // Replaces the whole index with the streamed documents, then commits and publishes it in one step
+    public long rebuild(Stream<SearchDocument> documents) throws IOException {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("A search index rebuild is already running");
+        }
+        try {
+            // Journal first: a change applied before this point is in the database the stream reads
+            liveLock.lock();
+            try {
+                journal = new ArrayList<>();
+                writer.deleteAll();
+            } finally {
+                liveLock.unlock();
+            }
+            // A terminal op pushes rows through one at a time; an iterator over flatMap would buffer a whole table
+            long count = documents.mapToLong(document -> {
+                try {
+                    writer.updateDocument(new Term(UID, document.uid()), toLucene(document));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return 1;
+            }).sum();
+            liveLock.lock();
+            try {
+                for (IndexChange change : journal) {
+                    change.apply();
+                }
+                journal = null;
+            } finally {
+                liveLock.unlock();
+            }
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+            return count;
+        } finally {
+            liveLock.lock();
+            journal = null;
+            liveLock.unlock();
+            rebuilding.set(false);
+        }
+    }
+
+    private void applyLive(IndexChange change) {
+        liveLock.lock();
+        try {
+            change.apply();
+            if (journal != null) {
+                journal.add(change);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            liveLock.unlock();
+        }
+    }
+
+    public IndexSearcher acquire() throws IOException {
+        return searcherManager.acquire();
+    }
+
+    public void release(IndexSearcher searcher) throws IOException {
+        searcherManager.release(searcher);
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.refresh-interval:PT1S}")
+    public void refresh() {
+        if (rebuilding.get()) {
+            return;
+        }
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Search index refresh failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.commit-interval:PT30S}")
+    public void commit() {
+        if (rebuilding.get() || !writer.hasUncommittedChanges()) {
+            return;
+        }
+        try {
+            writer.commit();
+        } catch (IOException e) {
+            log.warn("Search index commit failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        // IndexWriter.close commits pending changes by default
+        writer.close();
+        directory.close();
+    }
+
+    private static Document toLucene(SearchDocument source) {
+        Document doc = new Document();
+        doc.add(new StringField(UID, source.uid(), Field.Store.NO));
+        // Tie-breaker for score-ordered cursor pages
+        doc.add(new SortedDocValuesField(UID, new BytesRef(source.uid())));
+        doc.add(new StringField(TYPE, source.getType(), Field.Store.YES));
+        doc.add(new StoredField(ID, source.getId()));
+        if (source.getPostId() != null) {
+            doc.add(new StringField(POST_ID, source.getPostId().toString(), Field.Store.YES));
+        }
+        if (source.getTitle() != null) {
+            doc.add(new TextField(TITLE, source.getTitle(), Field.Store.YES));
+        }
+        if (source.getBody() != null) {
+            doc.add(new TextField(BODY, source.getBody(), Field.Store.YES));
+        }
+        return doc;
+    }
+
+    @FunctionalInterface
+    private interface IndexChange {
+        void apply() throws IOException;
+    }
+}
@@ -0,0 +1,70 @@
+package pafapp.Fitness.Service.implementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import pafapp.Fitness.Dto.UploadSessionDto;
+import pafapp.Fitness.Service.ImageDerivativeService;
+
+class MediaStoreServiceImplTests {
+
+    private static final String BASE_URL = "http://media.test";
+
+    @TempDir
+    Path storage;
+
+    @Test
+    void chunkedUploadIsPublishedUnderItsContentHash() throws Exception {
+        MediaStoreServiceImpl store = new MediaStoreServiceImpl(mock(ImageDerivativeService.class),
+                storage.toString(), BASE_URL, 1 << 20, 4096, Duration.ofHours(1));
+        byte[] content = new byte[10_000];
+        new Random(7).nextBytes(content);
+
+        String uploadId = store.startUpload("video/mp4").getUploadId();
+        long offset = 0;
+        while (offset < content.length) {
+            int length = (int) Math.min(4096, content.length - offset);
+            offset = store.appendChunk(uploadId, offset,
+                    new ByteArrayInputStream(content, (int) offset, length)).getOffset();
+        }
+        UploadSessionDto completed = store.completeUpload(uploadId);
+
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        assertThat(completed.getOffset()).isEqualTo(content.length);
+        assertThat(completed.getUrl()).isEqualTo(BASE_URL + "/" + hash + ".mp4");
+        assertThat(Files.readAllBytes(store.locate(hash + ".mp4"))).isEqualTo(content);
+
+        // The session is gone: neither a late chunk nor a second completion can touch the published file
+        assertThatThrownBy(() -> store.appendChunk(uploadId, content.length, new ByteArrayInputStream(new byte[1])))
+                .isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(() -> store.completeUpload(uploadId)).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void malformedDataUrlsAreRejectedAsBadInput() {
+        MediaStoreServiceImpl store = new MediaStoreServiceImpl(mock(ImageDerivativeService.class),
+                storage.toString(), BASE_URL, 16, 4096, Duration.ofHours(1));
+
+        assertThatThrownBy(() -> store.toReference("data:image/png,plain"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.toReference("data:image/png;base64,not*base64"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Malformed base64 data URL");
+        assertThatThrownBy(() -> store.toReference("data:image/png;base64," + "A".repeat(64)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(store.toReference("https://example.com/a.png")).isEqualTo("https://example.com/a.png");
+    }
+}
@@ -0,0 +1,162 @@
+package pafapp.Fitness.Service.implementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import pafapp.Fitness.Dto.FeedPostDto;
+import pafapp.Fitness.Model.Comment;
+import pafapp.Fitness.Model.Post;
+import pafapp.Fitness.Model.PostLike;
+import pafapp.Fitness.Model.User;
+import pafapp.Fitness.Service.MediaStoreService;
+import pafapp.Fitness.Service.NotificationService;
+import pafapp.Fitness.Service.SearchService;
+import pafapp.Fitness.Service.TimelineService;
+import pafapp.Fitness.cache.PostCounterBuffer;
+import pafapp.Fitness.cache.UserSummaryCache;
+import pafapp.Fitness.repository.CommentRepository;
+import pafapp.Fitness.repository.PostLikeRepository;
+import pafapp.Fitness.repository.PostRepository;
+import pafapp.Fitness.repository.UserRepository;
+import pafapp.Fitness.repository.UserStatsRepository;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:fetchplan;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=DATE,USER,VALUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PostFetchPlanTests {
+
+    private static final String VIEWER_ID = "viewer-1";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private PostLikeRepository postLikeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void profilePageCostsTheSameStatementsForFiveAndFiftyPosts() {
+        String heavy = persistAuthor("heavy", 50);
+        String light = persistAuthor("light", 5);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        statistics.clear();
+        List<FeedPostDto> heavyPage = service().getPostsByUserId(heavy, VIEWER_ID);
+        long heavyStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        List<FeedPostDto> lightPage = service().getPostsByUserId(light, VIEWER_ID);
+        long lightStatements = statistics.getPrepareStatementCount();
+
+        assertThat(heavyPage).hasSize(50);
+        assertThat(lightPage).hasSize(5);
+        FeedPostDto newest = heavyPage.get(0);
+        assertThat(newest.getTitle()).isEqualTo("heavy 0");
+        assertThat(newest.getImages()).containsExactly("heavy-0-b", "heavy-0-a");
+        assertThat(newest.getCommentsCount()).isEqualTo(4);
+        assertThat(newest.getRecentComments()).hasSize(3);
+        assertThat(newest.getUsername()).isEqualTo("heavy");
+        assertThat(newest.isLikedByViewer()).isTrue();
+        assertThat(heavyPage.get(1).isLikedByViewer()).isFalse();
+
+        // cards, images, comment counts, recent comments, author summaries, viewer likes
+        assertThat(heavyStatements).isEqualTo(6);
+        assertThat(lightStatements).isEqualTo(heavyStatements);
+    }
+
+    // A fresh service per call, so the author summaries are not already cached from the previous one
+    private PostServiceImpl service() {
+        return new PostServiceImpl(
+                postRepository,
+                commentRepository,
+                mock(MediaStoreService.class),
+                postLikeRepository,
+                mock(TimelineService.class),
+                mock(NotificationService.class),
+                new UserSummaryCache(userRepository, Duration.ofMinutes(10), 1000),
+                mock(UserStatsRepository.class),
+                new PostCounterBuffer(jdbcTemplate, transactionTemplate,
+                        entityManager.getEntityManager().getEntityManagerFactory(), Duration.ofSeconds(1)),
+                mock(OptimisticRetry.class),
+                mock(SearchService.class),
+                mock(EventStreamHub.class));
+    }
+
+    private String persistAuthor(String name, int posts) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@mail.test");
+        String userId = entityManager.persist(user).getId();
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < posts; i++) {
+            Post post = new Post();
+            post.setUserId(userId);
+            post.setUsername(name);
+            post.setTitle(name + " " + i);
+            post.setDate(LocalDateTime.now().minusMinutes(i));
+            post.setImages(new ArrayList<>(List.of(name + "-" + i + "-b", name + "-" + i + "-a")));
+            post.setSharedBy(new ArrayList<>(List.of("sharer-" + i)));
+            entityManager.persist(post);
+
+            for (int c = 0; c < 4; c++) {
+                Comment comment = new Comment();
+                comment.setContent("comment " + c);
+                comment.setCommentById("commenter-" + c);
+                comment.setCreatedAt(new Date(now + c * 1000L));
+                comment.setPost(post);
+                entityManager.persist(comment);
+            }
+            if (i % 2 == 0) {
+                PostLike like = new PostLike();
+                like.setPostId(post.getId());
+                like.setUserId(VIEWER_ID);
+                like.setCreatedAt(LocalDateTime.now());
+                entityManager.persist(like);
+            }
+        }
+        return userId;
+    }
+}
@@ -0,0 +1,72 @@
+package pafapp.Fitness.Service.implementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import pafapp.Fitness.Dto.CursorPageDto;
+import pafapp.Fitness.Dto.SearchHitDto;
+import pafapp.Fitness.search.SearchDocument;
+import pafapp.Fitness.search.SearchIndex;
+
+class SearchServiceImplTests {
+
+    private SearchIndex index;
+    private SearchServiceImpl searchService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new SearchIndex(new ByteBuffersDirectory());
+        searchService = new SearchServiceImpl(index);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void termsMatchAsPrefixesAndWithTypos() {
+        index.update(new SearchDocument(SearchDocument.POST, "1", 1L, "Morning running plan", "Easy pace"));
+        index.update(new SearchDocument(SearchDocument.POST, "2", 2L, "Leg day", "Front squats and lunges"));
+        index.update(new SearchDocument(SearchDocument.USER, "u1", null, "Mara Berg", null));
+        index.refresh();
+
+        assertThat(ids(searchService.search("runn", null, null, 10))).containsExactly("1");
+        assertThat(ids(searchService.search("squatz", null, null, 10))).containsExactly("2");
+        assertThat(ids(searchService.search("mar", "user", null, 10))).containsExactly("u1");
+        assertThat(searchService.search("deadlift", null, null, 10).getItems()).isEmpty();
+    }
+
+    @Test
+    void cursorPagesContinueWithoutGapsOrRepeats() {
+        for (int i = 0; i < 5; i++) {
+            // Equal scores, so the pages are ordered by the uid tie-breaker alone
+            index.update(new SearchDocument(SearchDocument.COMMENT, Integer.toString(i), 9L, null, "great workout"));
+        }
+        index.refresh();
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDto<SearchHitDto> page = searchService.search("workout", null, cursor, 2);
+            seen.addAll(ids(page));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).containsExactly("0", "1", "2", "3", "4");
+    }
+
+    private static List<String> ids(CursorPageDto<SearchHitDto> page) {
+        return page.getItems().stream().map(SearchHitDto::getId).toList();
+    }
+}
@@ -0,0 +1,66 @@
+package pafapp.Fitness.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class InMemoryTimelineStoreTests {
+
+    @Test
+    void pushDuringSeedIsKept() {
+        InMemoryTimelineStore store = new InMemoryTimelineStore(5, 100);
+
+        store.seedIfAbsent("u1", () -> {
+            // Fan-out of a post committed after the loader's snapshot
+            store.push("u1", 40L);
+            assertThat(store.isMaterialized("u1")).isFalse();
+            return List.of(30L, 20L, 10L);
+        });
+
+        assertThat(store.isMaterialized("u1")).isTrue();
+        assertThat(store.read("u1", null, 10)).containsExactly(40L, 30L, 20L, 10L);
+    }
+
+    @Test
+    void secondSeedDoesNotOverwrite() {
+        InMemoryTimelineStore store = new InMemoryTimelineStore(3, 100);
+        store.seedIfAbsent("u1", () -> List.of(5L, 4L, 3L, 2L));
+        store.push("u1", 6L);
+
+        store.seedIfAbsent("u1", () -> List.of(1L));
+
+        // Capacity 3: the oldest loaded id fell off when 6 was pushed
+        assertThat(store.read("u1", null, 10)).containsExactly(6L, 5L, 4L);
+        assertThat(store.read("u1", 5L, 10)).containsExactly(4L);
+    }
+
+    @Test
+    void outOfOrderPushesAreReadNewestFirst() {
+        InMemoryTimelineStore store = new InMemoryTimelineStore(4, 100);
+        store.seedIfAbsent("u1", () -> List.of(10L));
+
+        // Two fan-out threads finishing in the opposite order of the posts' ids
+        store.push("u1", 30L);
+        store.push("u1", 20L);
+        store.push("u1", 40L);
+        store.push("u1", 40L);
+
+        assertThat(store.read("u1", null, 2)).containsExactly(40L, 30L);
+        assertThat(store.read("u1", 30L, 2)).containsExactly(20L, 10L);
+
+        // Full: a late id between the kept ones pushes the oldest out, one older than all of them is dropped
+        store.push("u1", 15L);
+        store.push("u1", 5L);
+        assertThat(store.read("u1", null, 10)).containsExactly(40L, 30L, 20L, 15L);
+    }
+
+    @Test
+    void pushToUnknownTimelineIsIgnored() {
+        InMemoryTimelineStore store = new InMemoryTimelineStore(3, 100);
+        store.push("u1", 1L);
+        assertThat(store.isMaterialized("u1")).isFalse();
+        assertThat(store.read("u1", null, 10)).isEmpty();
+    }
+}
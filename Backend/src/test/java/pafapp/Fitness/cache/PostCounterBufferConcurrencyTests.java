@@ -0,0 +1,106 @@
+package pafapp.Fitness.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import pafapp.Fitness.Model.Post;
+import pafapp.Fitness.cache.PostCounterBuffer.Counter;
+import pafapp.Fitness.repository.PostRepository;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:postcounters;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=DATE,USER,VALUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PostCounterBuffer.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PostCounterBufferConcurrencyTests {
+
+    private static final int THREADS = 16;
+    private static final int TOGGLES_PER_THREAD = 2_000;
+
+    @Autowired
+    private PostCounterBuffer buffer;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentTogglesAndViewsOnOnePostLandExactlyOnce() throws Exception {
+        Post post = new Post();
+        post.setUserId("author-1");
+        post.setTitle("hot post");
+        post.setDate(LocalDateTime.now());
+        post.setLikeCount(5);
+        Long postId = postRepository.save(post).getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean togglesDone = new AtomicBoolean();
+        try {
+            // Keeps flushing while the increments race with sumThenReset
+            Future<?> flusher = pool.submit(() -> {
+                while (!togglesDone.get()) {
+                    buffer.flush();
+                }
+            });
+
+            List<Future<?>> togglers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                // Every fourth thread unlikes, the rest like
+                int delta = t % 4 == 0 ? -1 : 1;
+                togglers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < TOGGLES_PER_THREAD; i++) {
+                        buffer.increment(Counter.LIKES, postId, delta);
+                        buffer.increment(Counter.VIEWS, postId, 1);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> toggler : togglers) {
+                toggler.get(30, TimeUnit.SECONDS);
+            }
+            togglesDone.set(true);
+            flusher.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        buffer.flush();
+
+        int likers = THREADS - THREADS / 4;
+        int unlikers = THREADS / 4;
+        long expected = 5 + (long) (likers - unlikers) * TOGGLES_PER_THREAD;
+        Integer stored = jdbcTemplate.queryForObject("SELECT like_count FROM posts WHERE id = ?", Integer.class, postId);
+        assertThat(stored).isEqualTo((int) expected);
+        Long views = jdbcTemplate.queryForObject("SELECT view_count FROM posts WHERE id = ?", Long.class, postId);
+        assertThat(views).isEqualTo((long) THREADS * TOGGLES_PER_THREAD);
+        assertThat(buffer.pending(Counter.LIKES, postId)).isZero();
+        assertThat(buffer.pending(Counter.VIEWS, postId)).isZero();
+    }
+}
@@ -0,0 +1,182 @@
+package pafapp.Fitness.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import pafapp.Fitness.Model.User;
+import pafapp.Fitness.cache.UserSuggestIndex.Entry;
+import pafapp.Fitness.cache.UserSuggestIndex.Match;
+
+class UserSuggestIndexTests {
+
+    @Test
+    void heavyPrefixesMatchABruteForceRanking() {
+        // 3000 "anna"s and 3000 "anne"s: "a", "an", "ann" and both names span more than the 2048-key scan limit
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            entries.add(new Entry("a" + i, "Anna " + i, "anna" + i + "@mail.test", 2 * i));
+            entries.add(new Entry("e" + i, "Anne " + i, "anne" + i + "@mail.test", 2 * i + 1));
+        }
+        UserSuggestIndex index = new UserSuggestIndex();
+        index.rebuild(entries::stream);
+
+        for (String prefix : List.of("a", "an", "ann", "anna", "anne", "anna ", "anna 1", "anne 29", "anna2", "x")) {
+            assertThat(ids(index.suggest(prefix, 20)))
+                    .as("prefix %s", prefix)
+                    .isEqualTo(bruteForce(entries, prefix, 20));
+        }
+        assertThat(ids(index.suggest("ann", 3))).containsExactly("e2999", "a2999", "e2998");
+    }
+
+    @Test
+    void overlayMasksRenamedUsersAndAddsNewOnes() {
+        UserSuggestIndex index = new UserSuggestIndex();
+        index.rebuild(() -> Stream.of(
+                new Entry("u1", "Alice Smith", "alice@mail.test", 10),
+                new Entry("u2", "Alfred Jones", "alfred@mail.test", 5)));
+
+        index.upsert(user("u1", "Bob Smith", "bob@mail.test"));
+        index.upsert(user("u3", "Alina Ray", "alina@mail.test"));
+
+        // u1's old keys no longer match; its follower count carries over from the snapshot
+        assertThat(ids(index.suggest("ali", 20))).containsExactly("u3");
+        assertThat(index.suggest("bob", 20)).singleElement()
+                .satisfies(match -> assertThat(match.getFollowers()).isEqualTo(10));
+        assertThat(ids(index.suggest("smith", 20))).containsExactly("u1");
+        assertThat(ids(index.suggest("al", 20))).containsExactly("u2", "u3");
+
+        // A rebuild that contains the overlaid users absorbs them
+        index.rebuild(() -> Stream.of(
+                new Entry("u1", "Bob Smith", "bob@mail.test", 10),
+                new Entry("u2", "Alfred Jones", "alfred@mail.test", 5),
+                new Entry("u3", "Alina Ray", "alina@mail.test", 0)));
+        assertThat(index.overlaySize()).isZero();
+        assertThat(ids(index.suggest("al", 20))).containsExactly("u2", "u3");
+        assertThat(ids(index.suggest("bob", 20))).containsExactly("u1");
+    }
+
+    @Test
+    void writesCommittedWhileTheScanOpensStayInTheOverlay() {
+        UserSuggestIndex index = new UserSuggestIndex();
+        index.upsert(user("u1", "Alice Smith", "alice@mail.test"));
+
+        // u2 commits after the overlay was captured, so the scan cannot be trusted to contain it
+        index.rebuild(() -> {
+            index.upsert(user("u2", "Alina Ray", "alina@mail.test"));
+            return Stream.of(new Entry("u1", "Alice Smith", "alice@mail.test", 0));
+        });
+
+        assertThat(index.overlaySize()).isEqualTo(1);
+        assertThat(ids(index.suggest("ali", 20))).containsExactlyInAnyOrder("u1", "u2");
+    }
+
+    @Test
+    void renamedTopUsersDoNotShortenTheResult() {
+        // 3000 keys under "ann", so its top list is precomputed and only MAX_LIMIT long
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            entries.add(new Entry("a" + i, "Anna " + i, "anna" + i + "@mail.test", i));
+        }
+        UserSuggestIndex index = new UserSuggestIndex();
+        index.rebuild(entries::stream);
+
+        // The five best-ranked users no longer match "ann"
+        List<Entry> renamed = new ArrayList<>(entries);
+        for (int i = 2995; i < 3000; i++) {
+            index.upsert(user("a" + i, "Bea " + i, "bea" + i + "@mail.test"));
+            renamed.set(i, new Entry("a" + i, "Bea " + i, "bea" + i + "@mail.test", i));
+        }
+
+        assertThat(ids(index.suggest("ann", 20))).isEqualTo(bruteForce(renamed, "ann", 20));
+        assertThat(ids(index.suggest("anna 29", 20))).isEqualTo(bruteForce(renamed, "anna 29", 20));
+        assertThat(ids(index.suggest("bea", 3))).containsExactly("a2999", "a2998", "a2997");
+    }
+
+    @Test
+    void overlayUsersRankByTheirLiveFollowerCount() {
+        UserSuggestIndex index = new UserSuggestIndex();
+        index.rebuild(() -> Stream.of(
+                new Entry("u1", "Alice Smith", "alice@mail.test", 2),
+                new Entry("u2", "Alfred Jones", "alfred@mail.test", 5)));
+
+        index.upsert(user("u3", "Alina Ray", "alina@mail.test"));
+        assertThat(ids(index.suggest("al", 20))).containsExactly("u2", "u1", "u3");
+
+        for (int i = 0; i < 3; i++) {
+            index.followersChanged("u3", 1);
+        }
+        // Snapshot users are not in the overlay, so their counts wait for the next rebuild
+        index.followersChanged("u1", 10);
+        assertThat(ids(index.suggest("al", 20))).containsExactly("u2", "u3", "u1");
+
+        // A profile edit keeps the count tracked in the overlay
+        index.upsert(user("u3", "Alina Ray-Smith", "alina@mail.test"));
+        index.followersChanged("u3", -1);
+        assertThat(index.suggest("alina", 20)).singleElement()
+                .satisfies(match -> assertThat(match.getFollowers()).isEqualTo(2));
+    }
+
+    @Test
+    void matchingIgnoresCaseAccentsAndExtraWhitespace() {
+        assertThat(UserSuggestIndex.normalize("  Zoë   Ryan ")).isEqualTo("zoe ryan");
+        assertThat(UserSuggestIndex.normalize("ÉLODIE")).isEqualTo("elodie");
+        assertThat(UserSuggestIndex.normalize(null)).isEmpty();
+
+        UserSuggestIndex index = new UserSuggestIndex();
+        index.rebuild(() -> Stream.of(
+                new Entry("u1", "Zoë Ryan", "zoe.r@mail.test", 3),
+                new Entry("u2", "Élodie Durand", "elodie@mail.test", 7)));
+
+        assertThat(ids(index.suggest("ZOE", 20))).containsExactly("u1");
+        assertThat(ids(index.suggest("zoë  r", 20))).containsExactly("u1");
+        assertThat(ids(index.suggest("ryan", 20))).containsExactly("u1");
+        assertThat(ids(index.suggest("elo", 20))).containsExactly("u2");
+        assertThat(ids(index.suggest("Durand", 20))).containsExactly("u2");
+        assertThat(ids(index.suggest("zoe.r@", 20))).containsExactly("u1");
+    }
+
+    @Test
+    void limitIsClampedAndBlankQueriesMatchNothing() {
+        UserSuggestIndex index = new UserSuggestIndex();
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            entries.add(new Entry("u" + i, "Sam " + i, null, i));
+        }
+        index.rebuild(entries::stream);
+
+        assertThat(ids(index.suggest("sam", 3))).containsExactly("u49", "u48", "u47");
+        assertThat(index.suggest("sam", 0)).hasSize(1);
+        assertThat(index.suggest("sam", 500)).hasSize(UserSuggestIndex.MAX_LIMIT);
+        assertThat(index.suggest("   ", 10)).isEmpty();
+        assertThat(index.suggest(null, 10)).isEmpty();
+    }
+
+    private static List<String> bruteForce(List<Entry> entries, String prefix, int limit) {
+        String normalized = prefix.toLowerCase(Locale.ROOT).trim();
+        return entries.stream()
+                .filter(entry -> UserSuggestIndex.keysOf(entry).stream().anyMatch(key -> key.startsWith(normalized)))
+                .sorted(Comparator.comparingInt(Entry::getFollowers).reversed())
+                .limit(limit)
+                .map(Entry::getUserId)
+                .toList();
+    }
+
+    private static List<String> ids(List<Match> matches) {
+        return matches.stream().map(Match::getUserId).toList();
+    }
+
+    private static User user(String id, String name, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(email);
+        return user;
+    }
+}
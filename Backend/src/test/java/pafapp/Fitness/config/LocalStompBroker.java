@@ -0,0 +1,37 @@
+package pafapp.Fitness.config;
+
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+
+// Embedded Artemis with a STOMP acceptor on localhost:61613 (no persistence, no security), for running
+// the app with websocket.broker.mode=RELAY on a dev machine, e.g. two nodes on different server.port:
+//   mvn test-compile exec:java -Dexec.mainClass=pafapp.Fitness.config.LocalStompBroker -Dexec.classpathScope=test
+public final class LocalStompBroker {
+
+    private LocalStompBroker() {
+    }
+
+    public static EmbeddedActiveMQ start(int port) throws Exception {
+        ConfigurationImpl configuration = new ConfigurationImpl();
+        configuration.setPersistenceEnabled(false);
+        configuration.setSecurityEnabled(false);
+        configuration.addAcceptorConfiguration("stomp", "tcp://127.0.0.1:" + port + "?protocols=STOMP");
+
+        EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        broker.start();
+        return broker;
+    }
+
+    public static void main(String[] args) throws Exception {
+        EmbeddedActiveMQ broker = start(args.length > 0 ? Integer.parseInt(args[0]) : 61613);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                broker.stop();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }));
+        Thread.currentThread().join();
+    }
+}
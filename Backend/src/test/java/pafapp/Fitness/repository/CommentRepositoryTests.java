@@ -0,0 +1,73 @@
+package pafapp.Fitness.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import pafapp.Fitness.Model.Comment;
+import pafapp.Fitness.Model.Post;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:comments;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=DATE,USER,VALUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CommentRepositoryTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Test
+    void findRecentByPostIdsReturnsLatestCommentsPerPost() {
+        Post first = persistPost("first");
+        Post second = persistPost("second");
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            persistComment(first, "first " + i, new Date(now + i * 1000L));
+        }
+        persistComment(second, "second 0", new Date(now));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Comment> recent = commentRepository.findRecentByPostIds(List.of(first.getId(), second.getId()), 3);
+
+        assertThat(recent).extracting(Comment::getContent)
+                .containsExactly("first 4", "first 3", "first 2", "second 0");
+        // The native column list has to cover every mapped column, including the lock version
+        assertThat(recent).allSatisfy(comment -> assertThat(comment.getVersion()).isEqualTo(0L));
+    }
+
+    private Post persistPost(String title) {
+        Post post = new Post();
+        post.setUserId("author-1");
+        post.setUsername("author");
+        post.setTitle(title);
+        post.setDate(LocalDateTime.now());
+        post.setImages(new ArrayList<>());
+        post.setSharedBy(new ArrayList<>());
+        return entityManager.persist(post);
+    }
+
+    private void persistComment(Post post, String content, Date createdAt) {
+        Comment comment = new Comment();
+        comment.setContent(content);
+        comment.setPost(post);
+        comment.setCreatedAt(createdAt);
+        entityManager.persist(comment);
+    }
+}
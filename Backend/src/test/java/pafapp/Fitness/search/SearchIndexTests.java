@@ -0,0 +1,56 @@
+package pafapp.Fitness.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.Stream;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.Test;
+
+class SearchIndexTests {
+
+    @Test
+    void liveChangesDuringARebuildWinOverTheStreamedSnapshot() throws Exception {
+        SearchIndex index = new SearchIndex(new ByteBuffersDirectory());
+        index.update(post(1, "old title"));
+        index.update(post(2, "second"));
+        index.refresh();
+
+        // The stream read post 1 before its edit and post 2 before its deletion, but reaches them afterwards
+        Stream<SearchDocument> snapshot = Stream.of(3, 1, 2).map(id -> {
+            if (id == 3) {
+                index.update(post(1, "edited title"));
+                index.deletePost(2L);
+            }
+            return id == 1 ? post(1, "old title") : post(id, id == 2 ? "second" : "third");
+        });
+        assertThat(index.rebuild(snapshot)).isEqualTo(3);
+
+        assertThat(titleTerms(index, "edited")).isEqualTo(1);
+        assertThat(titleTerms(index, "old")).isZero();
+        assertThat(titleTerms(index, "second")).isZero();
+        assertThat(titleTerms(index, "third")).isEqualTo(1);
+
+        // After the rebuild live changes go straight to the index again
+        index.update(post(4, "fourth"));
+        index.refresh();
+        assertThat(titleTerms(index, "fourth")).isEqualTo(1);
+        index.close();
+    }
+
+    private static SearchDocument post(long id, String title) {
+        return new SearchDocument(SearchDocument.POST, Long.toString(id), id, title, null);
+    }
+
+    private static int titleTerms(SearchIndex index, String term) throws Exception {
+        IndexSearcher searcher = index.acquire();
+        try {
+            return searcher.count(new TermQuery(new Term(SearchIndex.TITLE, term)));
+        } finally {
+            index.release(searcher);
+        }
+    }
+}
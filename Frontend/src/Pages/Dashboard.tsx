@@ -1,4 +1,4 @@
-import { useState } from "react";
+import { useEffect, useState } from "react";
 import { styled } from "@mui/material/styles";
 import {
   Box,
@@ -38,6 +38,8 @@ import ViewPost from "../components/Post/ViewPost";
 import UserView from "../components/User/UserView";
 import Notification from "../components/Notification/Notification";
 import ProgressDashboard from "../components/ProgressUpdate/ProgressDashboard";
+import { fetchUnreadCount } from "../api/api";
+import { subscribeToUnreadCount } from "../utils/eventStream";
 
 const drawerWidth = 240;
 
@@ -69,6 +71,15 @@ export default function Dashboard() {
   const [unreadCount, setUnreadCount] = useState(0);
   const userId = localStorage.getItem("userId") || "";
 
+  // The badge follows the server's unread count; after a reset the count is fetched again
+  useEffect(() => {
+    if (!userId) return;
+    return subscribeToUnreadCount(
+      setUnreadCount,
+      () => fetchUnreadCount(userId).then(setUnreadCount)
+    );
+  }, [userId]);
+
   const handleDrawerToggle = () => {
     setDrawerOpen(!drawerOpen);
   };
@@ -27,6 +27,10 @@ export const updateUser = (
 
 export const getAllUsers = () => API.get("/users");
 
+// Typeahead for mentions and user lookup (most followed first)
+export const suggestUsers = (q: string, limit = 10) =>
+  API.get("/users/suggest", { params: { q, limit } }).then(res => res.data);
+
 export const followUser = (
   userId: string,
   followedUserId: string
@@ -37,7 +41,9 @@ export const followUser = (
 
 // 📝 Post APIs
 export const createPost = (postData: any) => API.post("/posts", postData);
-export const getAllPosts = () => API.get("/posts");
+// One keyset page of the feed; pass the previous page's nextCursor as before to continue
+export const getFeed = (viewerId?: string, before?: string | null, limit = 20) =>
+  API.get("/posts", { params: { viewerId, before: before || undefined, limit } });
 
 // 💬 Comments APIs
 export const getComments = (postId: number) =>
@@ -49,12 +55,47 @@ export const addComment = (
     content: string;
     commentBy: string;
     commentById: string;
-    commentByProfile: string;
   }
 ) => API.post(`/posts/${postId}/comments`, comment);
 
 // 🖼️ Media Upload API for image or video
+const CHUNKED_UPLOAD_THRESHOLD = 20 * 1024 * 1024;
+const UPLOAD_CHUNK_SIZE = 8 * 1024 * 1024;
+
+// Large files go through a resumable session; a failed chunk is retried from the server's offset
+const uploadInChunks = async (file: File): Promise<string> => {
+  const base = "http://localhost:8080/upload/sessions";
+  const session = await axios.post(base, null, { params: { contentType: file.type } });
+  const uploadId = session.data.uploadId;
+  let offset = 0;
+  let retries = 0;
+
+  while (offset < file.size) {
+    const chunk = file.slice(offset, offset + UPLOAD_CHUNK_SIZE);
+    try {
+      const res = await axios.put(`${base}/${uploadId}`, chunk, {
+        params: { offset },
+        headers: { "Content-Type": "application/octet-stream" },
+      });
+      offset = res.data.offset;
+      retries = 0;
+    } catch (err) {
+      if (++retries > 3) throw err;
+      offset = (await axios.get(`${base}/${uploadId}`)).data.offset;
+    }
+  }
+
+  const done = await axios.post(`${base}/${uploadId}/complete`);
+  return done.data.url;
+};
+
 export const uploadMedia = async (file: File): Promise<{ url: string; type: string }> => {
+  const fileType = file.type.startsWith("video") ? "video" : "image";
+
+  if (file.size > CHUNKED_UPLOAD_THRESHOLD) {
+    return { url: await uploadInChunks(file), type: fileType };
+  }
+
   const formData = new FormData();
   formData.append("file", file);
 
@@ -62,10 +103,8 @@ export const uploadMedia = async (file: File): Promise<{ url: string; type: stri
     headers: { "Content-Type": "multipart/form-data" },
   });
 
-  const fileType = file.type.startsWith("video") ? "video" : "image";
-
   return {
-    url: res.data, // now a full URL
+    url: res.data, // content-addressed URL, identical files share it
     type: fileType,
   };
 };
@@ -74,7 +113,10 @@ export const uploadMedia = async (file: File): Promise<{ url: string; type: stri
 // ✅ Notification APIs (now using axios)
 
 export const fetchNotifications = (userId: string) =>
-  API.get(`/notifications/${userId}`).then(res => res.data)
+  API.get(`/notifications/${userId}`).then(res => res.data.items)
+
+export const fetchUnreadCount = (userId: string) =>
+  API.get(`/notifications/${userId}/unread-count`).then(res => res.data.unread)
 
 export const markNotificationAsRead = (id: string) =>
   API.post(`/notifications/read/${id}`)
@@ -82,6 +124,13 @@ export const markNotificationAsRead = (id: string) =>
 export const deleteNotification = (id: string) =>
   API.delete(`/notifications/${id}`)
 
+// 🔎 Search APIs (ranked; pass nextCursor back as `after` for more)
+export const search = (
+  q: string,
+  type?: "post" | "comment" | "user",
+  after?: string
+) => API.get("/search", { params: { q, type, after } }).then(res => res.data)
+
 // 📈 Progress Update APIs
 
 export const getProgressUpdateById = (id: string) =>
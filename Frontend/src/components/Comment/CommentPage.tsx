@@ -48,7 +48,6 @@ export default function CommentPage() {
       content: newComment,
       commentBy: currentUser.username,
       commentById: currentUser.id,
-      commentByProfile: currentUser.profileImage || "/default-profile.png",
     };
 
     try {
@@ -66,7 +65,10 @@ export default function CommentPage() {
   return (
     <Box sx={{ p: 3, maxWidth: 700, mx: "auto" }}>
       <Typography variant="h5" sx={{ mb: 2 }}>{post.title}</Typography>
-      <Typography sx={{ mb: 3 }}>{post.description}</Typography>
+      <Typography sx={{ mb: 1 }}>{post.description}</Typography>
+      <Typography variant="caption" color="text.secondary" sx={{ display: 'block', mb: 3 }}>
+        {post.likeCount || 0} likes · {post.viewCount || 0} views
+      </Typography>
       <Divider sx={{ mb: 2 }} />
 
       {/* Comment List */}
@@ -22,6 +22,7 @@ import {
 import { useEffect, useState } from "react";
 import {
   fetchNotifications,
+  fetchUnreadCount,
   markNotificationAsRead,
   deleteNotification,
 } from "../../api/api";
@@ -37,6 +38,7 @@ interface NotificationItem {
   postId: string;
   timestamp: string;
   read: boolean;
+  actorCount?: number;
 }
 
 interface Props {
@@ -63,9 +65,11 @@ export default function Notification({
     }
 
     try {
-      const data: NotificationItem[] = await fetchNotifications(userId);
+      const [data, unread] = await Promise.all([
+        fetchNotifications(userId),
+        fetchUnreadCount(userId),
+      ]);
       setNotifications(data);
-      const unread = data.filter((n) => !n.read).length;
       setUnreadCount(unread);
     } catch (error) {
       console.error("❌ Failed to fetch notifications:", error);
@@ -84,9 +88,8 @@ export default function Notification({
   const handleDelete = async (id: string) => {
     try {
       await deleteNotification(id);
-      const updated = notifications.filter((n) => n.id !== id);
-      setNotifications(updated);
-      setUnreadCount(updated.filter((n) => !n.read).length);
+      setNotifications(notifications.filter((n) => n.id !== id));
+      setUnreadCount(await fetchUnreadCount(userId));
     } catch (err) {
       console.error("❌ Failed to delete:", err);
     }
@@ -106,12 +109,12 @@ export default function Notification({
     console.log("🔍 Notification userId:", userId);
     loadNotifications();
 
-    connectToNotificationSocket(userId, (newNotification: NotificationItem) => {
-      setNotifications((prev) => {
-        const updated = [newNotification, ...prev];
-        setUnreadCount(updated.filter((n) => !n.read).length);
-        return updated;
-      });
+    connectToNotificationSocket((newNotification: NotificationItem) => {
+      setNotifications((prev) => [
+        newNotification,
+        ...prev.filter((n) => n.id !== newNotification.id),
+      ]);
+      fetchUnreadCount(userId).then(setUnreadCount);
     });
 
     return () => {
@@ -160,7 +163,9 @@ export default function Notification({
                 <ListItemText
                   primary={
                     <Typography variant="subtitle2" fontWeight="bold">
-                      {notification.message}
+                      {(notification.actorCount ?? 1) > 1
+                        ? `${notification.actorCount} people ${notification.message}`
+                        : notification.message}
                     </Typography>
                   }
                   secondary={
@@ -11,6 +11,15 @@ import {
   MoreVert as MoreVertIcon, Edit as EditIcon, Delete as DeleteIcon, Send as SendIcon,
 } from "@mui/icons-material";
 import { useNavigate } from "react-router-dom";
+import { getFeed } from "../../api/api";
+import { subscribeToFeedStream } from "../../utils/eventStream";
+
+// Feed cards request a 1080px-wide derivative of uploaded media instead of the original
+const feedImage = (url: string) =>
+  url.includes("/uploads/media/") ? `${url}?w=1080` : url;
+
+// Videos go through the Range-aware stream endpoint so seeking fetches only what is played
+const streamUrl = (url: string) => url.replace("/uploads/media/", "/media/");
 
 const API = axios.create({
   baseURL: "http://localhost:8080",
@@ -29,14 +38,54 @@ export default function ViewPost() {
   const [editDialogOpen, setEditDialogOpen] = useState(false);
   const [editContent, setEditContent] = useState<any>({});
   const [editingComment, setEditingComment] = useState<{ postId: number, commentId: number, content: string } | null>(null);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [newPosts, setNewPosts] = useState(0);
 
   const navigate = useNavigate();
 
+  // Appends a feed page; the server returns nextCursor = null after the oldest post
+  const appendPage = (page: { items: any[]; nextCursor: string | null }) => {
+    setPosts((prev) => [...prev, ...page.items]);
+    setLikedPosts((prev) => [...prev, ...page.items.filter((p: any) => p.likedByViewer).map((p: any) => p.id)]);
+    setNextCursor(page.nextCursor);
+  };
+
   useEffect(() => {
-    API.get("/users/me").then((res) => setCurrentUser(res.data));
-    API.get("/posts").then((res) => setPosts(res.data));
+    API.get("/users/me")
+      .then((res) => {
+        setCurrentUser(res.data);
+        return getFeed(res.data.id);
+      })
+      .then((res) => appendPage(res.data));
   }, []);
 
+  // New posts are announced rather than inserted, so the list does not jump while reading;
+  // a reset means some were missed, which the same reload covers
+  useEffect(() => subscribeToFeedStream(
+    () => setNewPosts((n) => n + 1),
+    () => setNewPosts((n) => Math.max(n, 1))
+  ), []);
+
+  const handleShowNewPosts = async () => {
+    const res = await getFeed(currentUser?.id);
+    setPosts([]);
+    setLikedPosts([]);
+    setNewPosts(0);
+    appendPage(res.data);
+  };
+
+  const handleLoadMore = async () => {
+    if (!nextCursor || loadingMore) return;
+    setLoadingMore(true);
+    try {
+      const res = await getFeed(currentUser?.id, nextCursor);
+      appendPage(res.data);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleLikeClick = async (postId: number) => {
     if (!currentUser?.id) return;
     const isLiked = likedPosts.includes(postId);
@@ -102,7 +151,6 @@ export default function ViewPost() {
         content,
         commentBy: currentUser.username,
         commentById: currentUser.id,
-        commentByProfile: currentUser.profileImage || "/default-profile.png",
       });
       setComments((prev) => ({
         ...prev,
@@ -114,7 +162,6 @@ export default function ViewPost() {
         content,
         commentBy: currentUser.username,
         commentById: currentUser.id,
-        commentByProfile: currentUser.profileImage || "/default-profile.png",
       });
       setComments((prev) => ({ ...prev, [postId]: [...(prev[postId] || []), res.data] }));
     }
@@ -139,6 +186,11 @@ export default function ViewPost() {
 
   return (
     <Box sx={{ display: "flex", flexDirection: "column", gap: 3, px: 2, py: 4 }}>
+      {newPosts > 0 && (
+        <Button variant="contained" onClick={handleShowNewPosts} sx={{ alignSelf: "center" }}>
+          Show new posts{newPosts > 1 ? ` (${newPosts})` : ""}
+        </Button>
+      )}
       {posts.map((post) => (
         <Card key={post.id} sx={{ width: "100%", maxWidth: 600, mx: "auto", borderRadius: 4, boxShadow: 4 }}>
           <CardHeader
@@ -172,13 +224,13 @@ export default function ViewPost() {
               borderRadius: 0, 
             }}
             height="250" 
-            image={post.images[0]} alt="Post" />
+            image={feedImage(post.images[0])} alt="Post" />
           )}
           {post.video && (
             <CardMedia component="video" 
             controls height="250" 
             sx={{ width: "100%", height: "auto", maxHeight: 500, objectFit: "cover" }}
-            src={post.video} />
+            src={streamUrl(post.video)} />
           )}
 
           <CardContent>
@@ -239,6 +291,14 @@ export default function ViewPost() {
         </Card>
       ))}
 
+      {nextCursor && (
+        <Box sx={{ display: "flex", justifyContent: "center", my: 2 }}>
+          <Button variant="outlined" onClick={handleLoadMore} disabled={loadingMore}>
+            {loadingMore ? "Loading..." : "Load more"}
+          </Button>
+        </Box>
+      )}
+
       {/* ✏️ Edit Dialog */}
       <Dialog open={editDialogOpen} onClose={() => setEditDialogOpen(false)} fullWidth maxWidth="sm">
         <DialogTitle>Edit Post</DialogTitle>
@@ -0,0 +1,27 @@
+// Server-Sent Events from /stream/*. EventSource reconnects by itself and resumes with Last-Event-ID;
+// a "reset" event means the server no longer has what we missed, so reload instead.
+const STREAM_BASE = 'http://localhost:8080/stream';
+
+export const subscribeToFeedStream = (
+  onPost: (postId: number) => void,
+  onReset: () => void
+) => {
+  const source = new EventSource(`${STREAM_BASE}/feed`, { withCredentials: true });
+  source.addEventListener('post', (event) => {
+    onPost(JSON.parse((event as MessageEvent).data).postId);
+  });
+  source.addEventListener('reset', onReset);
+  return () => source.close();
+};
+
+export const subscribeToUnreadCount = (
+  onUnread: (unread: number) => void,
+  onReset: () => void
+) => {
+  const source = new EventSource(`${STREAM_BASE}/notifications`, { withCredentials: true });
+  source.addEventListener('unread', (event) => {
+    onUnread(JSON.parse((event as MessageEvent).data).unread);
+  });
+  source.addEventListener('reset', onReset);
+  return () => source.close();
+};
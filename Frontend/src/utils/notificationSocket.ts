@@ -4,7 +4,6 @@ import { Client } from '@stomp/stompjs';
 let stompClient: Client | null = null;
 
 export const connectToNotificationSocket = (
-  userId: string,
   onNotification: (notification: any) => void
 ) => {
   const socket = new SockJS.default('http://localhost:8080/ws'); // ✅ Use .default here
@@ -13,10 +12,13 @@ export const connectToNotificationSocket = (
     reconnectDelay: 5000,
     onConnect: () => {
       console.log('📡 Connected to WebSocket');
-      stompClient?.subscribe(`/user/${userId}/queue/notifications`, (message) => {
+      // The server knows the user from the login session, so this is always our own queue
+      stompClient?.subscribe('/user/queue/notifications', (message) => {
         if (message.body) {
-          const notification = JSON.parse(message.body);
-          onNotification(notification);
+          // Notifications arrive batched per frame as an array
+          const payload = JSON.parse(message.body);
+          const notifications = Array.isArray(payload) ? payload : [payload];
+          notifications.forEach(onNotification);
         }
       });
     },